@@ -0,0 +1,73 @@
+package org.example;
+
+import java.util.List;
+
+// Word frequencies of corpora too large for an exact map, in fixed memory: a count-min sketch
+// answers point queries and a Space-Saving counter keeps the heavy hitters.
+// Both over-count: a point estimate exceeds the true count by at most epsilon * total with
+// probability 1 - delta, and a heavy hitter's count by at most total / capacity.
+public class ApproximateWordCounter implements Tokenizer.WordSink {
+
+    public static final double DEFAULT_EPSILON = 0.0001;
+    public static final double DEFAULT_DELTA = 0.01;
+    public static final int DEFAULT_HEAVY_HITTERS = 1000;
+
+    private final CountMinSketch sketch;
+    private final SpaceSavingCounter heavyHitters;
+
+    public ApproximateWordCounter() {
+        this(DEFAULT_EPSILON, DEFAULT_DELTA, DEFAULT_HEAVY_HITTERS);
+    }
+
+    public ApproximateWordCounter(double epsilon, double delta, int heavyHitterCapacity) {
+        this.sketch = new CountMinSketch(epsilon, delta);
+        this.heavyHitters = new SpaceSavingCounter(heavyHitterCapacity);
+    }
+
+    // Count the words of a text; returns the number of words
+    public int addText(CharSequence text) {
+        return Tokenizer.get().tokenize(text, this);
+    }
+
+    @Override
+    public void accept(char[] word, int length) {
+        sketch.add(word, 0, length, 1);
+        heavyHitters.add(word, 0, length, 1);
+    }
+
+    // The word is expected to be normalized like tokenizer output
+    public void addWord(CharSequence word, long count) {
+        sketch.add(word, count);
+        heavyHitters.add(word, count);
+    }
+
+    // Never below the true count. Both structures over-count, so the smaller answer is kept.
+    public long estimateCount(CharSequence word) {
+        long estimate = sketch.estimate(word);
+        if (heavyHitters.isMonitored(word)) {
+            estimate = Math.min(estimate, heavyHitters.getCount(word));
+        }
+        return estimate;
+    }
+
+    // Up to k of the most frequent words, highest count first
+    public List<SpaceSavingCounter.HeavyHitter> topWords(int k) {
+        return heavyHitters.top(k);
+    }
+
+    public CountMinSketch getSketch() {
+        return sketch;
+    }
+
+    public SpaceSavingCounter getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    public long getTotalCount() {
+        return sketch.getTotalCount();
+    }
+
+    public long getMemoryBytes() {
+        return sketch.getMemoryBytes() + heavyHitters.getMemoryBytes();
+    }
+}
@@ -1,11 +1,17 @@
+import org.example.CompletionTrie;
+import org.example.CsvRecordReader;
+import org.example.EditDistance;
+import org.example.TermDictionary;
+import org.example.Tokenizer;
+
 import java.io.*;
 import java.util.*;
 
 public class AssignmentTwoCombined {
-    private static final Map<String, Integer> frequencyMap = new HashMap<>();
-    private static final Set<String> vocabulary = new HashSet<>(); // Use Set to prevent duplicates
+    private static final TermDictionary vocabulary = new TermDictionary(); // Unique words and their frequencies
     private static final Map<String, Integer> searchFrequency = new HashMap<>();
     private static final Map<String, Integer> pageRanks = new HashMap<>(); // For page ranks
+    private static CompletionTrie completionTrie = new CompletionTrie(); // Frequency-ranked prefix completion
 
     public static void main(String[] args) {
         String csvFilePath ="combined_credit_cards.csv";
@@ -56,44 +62,49 @@ public class AssignmentTwoCombined {
 
     // Load vocabulary and frequency map from CSV
     private static void loadVocabulary(String filePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] fields = line.split(",");
-                for (String field : fields) {
-                    String[] words = field.split("\\s+");
-                    for (String word : words) {
-                        String cleanWord = word.replaceAll("[^a-zA-Z0-9]", "").toLowerCase();
-                        if (!cleanWord.isEmpty()) {
-                            vocabulary.add(cleanWord); // Add to Set
-                            frequencyMap.put(cleanWord, frequencyMap.getOrDefault(cleanWord, 0) + 1);
-                            pageRanks.put(cleanWord, 0); // Initialize rank to 0
-                        }
-                    }
+        // Words are normalized straight from the record buffer; only the kept word becomes a String
+        Tokenizer tokenizer = Tokenizer.get();
+        Tokenizer.WordSink sink = (word, length) -> {
+            int size = vocabulary.size();
+            int id = vocabulary.add(word, 0, length, 1);
+            if (vocabulary.size() != size) {
+                pageRanks.put(vocabulary.getTerm(id), 0); // Initialize rank to 0
+            }
+        };
+        try (CsvRecordReader csv = new CsvRecordReader(new FileReader(filePath))) {
+            while (csv.nextRecord()) {
+                for (int f = 0; f < csv.getFieldCount(); f++) {
+                    csv.tokenize(f, tokenizer, sink);
                 }
             }
         } catch (IOException e) {
             System.out.println("Error reading the file: " + e.getMessage());
         }
+        completionTrie = CompletionTrie.fromTerms(vocabulary);
     }
 
     // Combined spell-checking and word completion
     private static void spellCheckAndSuggest(String input) {
-        List<String> suggestions = new ArrayList<>();
+        // The 10 most frequent words starting with the input prefix
+        List<String> suggestions = completionTrie.topCompletions(input.toLowerCase(), 10);
         String closestMatch = null;
         int minDistance = Integer.MAX_VALUE;
 
-        for (String word : vocabulary) { // Iterate over unique words
-            // Check if the word starts with the input prefix
-            if (word.startsWith(input.toLowerCase())) {
-                suggestions.add(word);
-            }
-
-            // Calculate Levenshtein distance for spell-checking
-            int distance = levenshteinDistance(input.toLowerCase(), word);
-            if (distance < minDistance) {
-                minDistance = distance;
-                closestMatch = word;
+        // The closest match is only shown when there are no completions
+        if (suggestions.isEmpty()) {
+            String lowerInput = input.toLowerCase();
+            EditDistance editDistance = EditDistance.get();
+            TermDictionary.TermView word = vocabulary.newView();
+            for (int id = 0; id < vocabulary.size(); id++) { // Iterate over unique words
+                // Levenshtein distance, cut off once it cannot beat the closest match so far
+                int distance = editDistance.distance(lowerInput, word.moveTo(id), minDistance - 1);
+                if (distance < minDistance) {
+                    minDistance = distance;
+                    closestMatch = word.toString();
+                    if (distance == 0) {
+                        break;
+                    }
+                }
             }
         }
 
@@ -112,10 +123,10 @@ public class AssignmentTwoCombined {
 
     // Display word frequency count
     private static void displayFrequencyCount() {
-        frequencyMap.entrySet().stream()
-                .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-                .limit(10)
-                .forEach(entry -> System.out.println(entry.getKey() + ": " + entry.getValue()));
+        // Bounded heap over the term ids instead of sorting every word
+        for (int id : vocabulary.topIds(10)) {
+            System.out.println(vocabulary.getTerm(id) + ": " + vocabulary.getCount(id));
+        }
     }
 
     // Update and display search frequency
@@ -149,34 +160,14 @@ public class AssignmentTwoCombined {
         }
     }
 
-    // Calculate Levenshtein distance
-    private static int levenshteinDistance(String a, String b) {
-        int[][] dp = new int[a.length() + 1][b.length() + 1];
-        for (int i = 0; i <= a.length(); i++) {
-            for (int j = 0; j <= b.length(); j++) {
-                if (i == 0) {
-                    dp[i][j] = j;
-                } else if (j == 0) {
-                    dp[i][j] = i;
-                } else {
-                    dp[i][j] = Math.min(
-                            Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                            dp[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1)
-                    );
-                }
-            }
-        }
-        return dp[a.length()][b.length()];
-    }
-
     // Page Ranking Calculation
     private static void pageRankingCalculation() {
         PriorityQueue<Map.Entry<String, Integer>> maxHeap =
                 new PriorityQueue<>((a, b) -> b.getValue().compareTo(a.getValue()));
 
         // Calculate ranks based on search frequency
-        for (Map.Entry<String, Integer> entry : frequencyMap.entrySet()) {
-            String word = entry.getKey();
+        for (int id = 0; id < vocabulary.size(); id++) {
+            String word = vocabulary.getTerm(id);
             int rank = searchFrequency.getOrDefault(word, 0); // Rank based on search frequency
             maxHeap.offer(Map.entry(word, rank));
         }
@@ -0,0 +1,212 @@
+package org.example;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// BK-tree over a word list for "closest word" and "all words within distance d" queries.
+// Each child hangs off its parent under the edit distance between the two words; by the
+// triangle inequality a query at distance q from a node only needs the children whose edge lies
+// in [q - radius, q + radius], which prunes most of the vocabulary.
+// Nodes are kept in parallel arrays (first child / next sibling) instead of one object per node.
+// Removed words stay in the tree as marked nodes that still route searches but are never
+// returned; adding the word again unmarks its node.
+public class BKTree {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private String[] words = new String[16];
+    private int[] edge = new int[16];        // Distance to the parent
+    private int[] firstChild = new int[16];
+    private int[] nextSibling = new int[16];
+    private boolean[] removed = new boolean[16];
+    private int size;           // Nodes, including removed ones
+    private int removedCount;
+
+    public BKTree() {
+    }
+
+    public BKTree(Collection<String> words) {
+        for (String word : words) {
+            add(word);
+        }
+    }
+
+    // Returns false when the word was already present
+    public boolean add(String word) {
+        if (size == 0) {
+            newNode(word, 0);
+            return true;
+        }
+        EditDistance kernel = EditDistance.get();
+        int node = ROOT;
+        while (true) {
+            int distance = kernel.distance(word, words[node]);
+            if (distance == 0) {
+                if (removed[node]) {
+                    removed[node] = false;
+                    removedCount--;
+                    return true;
+                }
+                return false;
+            }
+            int child = childWithEdge(node, distance);
+            if (child == NONE) {
+                int added = newNode(word, distance);
+                nextSibling[added] = firstChild[node];
+                firstChild[node] = added;
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    // Returns false when the word was not present
+    public boolean remove(String word) {
+        if (size == 0) {
+            return false;
+        }
+        EditDistance kernel = EditDistance.get();
+        int node = ROOT;
+        while (node != NONE) {
+            int distance = kernel.distance(word, words[node]);
+            if (distance == 0) {
+                if (removed[node]) {
+                    return false;
+                }
+                removed[node] = true;
+                removedCount++;
+                return true;
+            }
+            node = childWithEdge(node, distance);
+        }
+        return false;
+    }
+
+    public int size() {
+        return size - removedCount;
+    }
+
+    // Nodes including removed words
+    int nodeCount() {
+        return size;
+    }
+
+    // Closest word by edit distance; ties go to the alphabetically first word. Null when empty.
+    public String closest(String query) {
+        if (size() == 0) {
+            return null;
+        }
+        EditDistance kernel = EditDistance.get();
+        String best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = ROOT;
+        while (top > 0) {
+            int node = stack[--top];
+            int distance = kernel.distance(query, words[node]);
+            if (!removed[node] && (distance < bestDistance
+                    || (distance == bestDistance && words[node].compareTo(best) < 0))) {
+                best = words[node];
+                bestDistance = distance;
+            }
+            // A child can only tie or beat the best if its edge is within bestDistance of ours
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(edge[child] - distance) <= bestDistance) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Every word within maxDistance edits of the query, in no particular order
+    public List<String> withinDistance(String query, int maxDistance) {
+        List<String> result = new ArrayList<>();
+        if (size == 0) {
+            return result;
+        }
+        EditDistance kernel = EditDistance.get();
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = ROOT;
+        while (top > 0) {
+            int node = stack[--top];
+            int distance = kernel.distance(query, words[node]);
+            if (distance <= maxDistance && !removed[node]) {
+                result.add(words[node]);
+            }
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(edge[child] - distance) <= maxDistance) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Word stored at a node; nodes are numbered in insertion order
+    String wordAt(int node) {
+        return words[node];
+    }
+
+    // Write the links between nodes, one array after another; the words themselves are written
+    // by the caller in node order
+    void writeLinks(DataOutput out) throws IOException {
+        for (int[] column : new int[][]{edge, firstChild, nextSibling}) {
+            for (int node = 0; node < size; node++) {
+                out.writeInt(column[node]);
+            }
+        }
+    }
+
+    // Rebuild a tree from its words in node order and the links written by writeLinks,
+    // without computing any distance
+    static BKTree fromLinks(String[] nodeWords, int[] edge, int[] firstChild, int[] nextSibling) {
+        BKTree tree = new BKTree();
+        int capacity = Math.max(16, nodeWords.length);
+        tree.words = Arrays.copyOf(nodeWords, capacity);
+        tree.edge = Arrays.copyOf(edge, capacity);
+        tree.firstChild = Arrays.copyOf(firstChild, capacity);
+        tree.nextSibling = Arrays.copyOf(nextSibling, capacity);
+        tree.removed = new boolean[capacity];
+        tree.size = nodeWords.length;
+        return tree;
+    }
+
+    private int childWithEdge(int node, int distance) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (edge[child] == distance) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private int newNode(String word, int distanceToParent) {
+        if (size == words.length) {
+            int capacity = size * 2;
+            words = Arrays.copyOf(words, capacity);
+            edge = Arrays.copyOf(edge, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+        }
+        words[size] = word;
+        edge[size] = distanceToParent;
+        firstChild[size] = NONE;
+        nextSibling[size] = NONE;
+        return size++;
+    }
+}
@@ -0,0 +1,188 @@
+package org.example;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+// Offline batch mode: match a file of customer profiles against the catalog.
+// Profiles are streamed in fixed-size chunks; each chunk is evaluated in parallel on a fork-join
+// pool against one shared engine while the next chunk is read, and results are written in input
+// order. At most two chunks are held in memory regardless of the size of the profile file.
+//
+// Profile file (first line is a header): ProfileId,MaxFee,MaxAPR,Rewards
+// An empty or N/A MaxFee / MaxAPR means "no limit", an empty Rewards matches every card.
+// Output file: ProfileId,Matches,TopCards (names of the best scoring cards separated by "; ")
+//
+// Usage: BatchRecommender <profilesCsv> <outputCsv> [catalogCsv] [parallelism] [topCards]
+public class BatchRecommender {
+
+    private static final int CHUNK_SIZE = 4096;
+    private static final int DEFAULT_TOP_CARDS = 5;
+
+    private static final int PROFILE_ID = 0;
+    private static final int MAX_FEE = 1;
+    private static final int MAX_RATE = 2;
+    private static final int REWARDS = 3;
+
+    private final RecommendationEngine engine;
+    private final ForkJoinPool pool;
+    private final int topCards;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong failures = new AtomicLong();
+
+    public BatchRecommender(CardStore cards, ForkJoinPool pool, int topCards) {
+        this.engine = new RecommendationEngine(cards);
+        this.pool = pool;
+        this.topCards = topCards;
+    }
+
+    // One chunk of profiles, and the output lines computed for it
+    private static final class Chunk {
+        final String[] ids = new String[CHUNK_SIZE];
+        final double[] maxFees = new double[CHUNK_SIZE];
+        final double[] maxRates = new double[CHUNK_SIZE];
+        final String[] keywords = new String[CHUNK_SIZE];
+        final String[] results = new String[CHUNK_SIZE];
+        int size;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchRecommender <profilesCsv> <outputCsv> [catalogCsv] [parallelism] [topCards]");
+            System.exit(2);
+        }
+        String catalogFile = args.length > 2 ? args[2] : "combined_credit_cards.csv";
+        int parallelism = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int topCards = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_TOP_CARDS;
+
+        CardStore cards = CatalogSnapshot.loadStore(catalogFile);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            BatchRecommender batch = new BatchRecommender(cards, pool, topCards);
+            long start = System.nanoTime();
+            long profiles = batch.run(new File(args[0]), new File(args[1]));
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%,d profiles against %,d cards in %.2f s (%,.0f profiles/s, parallelism %d, %d failed)%n",
+                    profiles, cards.size(), seconds, profiles / seconds, parallelism, batch.getFailureCount());
+            System.out.println("Per-profile latency: " + batch.getLatencies().summary());
+            System.out.println(batch.engine.getResultCache().getStats());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Returns the number of profiles processed
+    public long run(File profilesFile, File outputFile) throws IOException {
+        long processed = 0;
+        try (CsvRecordReader reader = new CsvRecordReader(new BufferedReader(
+                     new InputStreamReader(new FileInputStream(profilesFile), StandardCharsets.UTF_8)));
+             Writer out = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(outputFile), StandardCharsets.UTF_8), 1 << 16)) {
+            reader.nextRecord(); // Header
+            out.write("ProfileId,Matches,TopCards\n");
+
+            // Two chunks alternate: one is evaluated on the pool while the other is refilled
+            Chunk current = new Chunk();
+            Chunk next = new Chunk();
+            readChunk(reader, current);
+            while (current.size > 0) {
+                Chunk evaluating = current;
+                ForkJoinTask<?> task = pool.submit(() ->
+                        IntStream.range(0, evaluating.size).parallel().forEach(i -> evaluate(evaluating, i)));
+                readChunk(reader, next);
+                task.join();
+
+                for (int i = 0; i < current.size; i++) {
+                    out.write(current.results[i]);
+                }
+                processed += current.size;
+
+                current = next;
+                next = evaluating;
+            }
+        }
+        return processed;
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    private static void readChunk(CsvRecordReader reader, Chunk chunk) throws IOException {
+        chunk.size = 0;
+        while (chunk.size < CHUNK_SIZE && reader.nextRecord()) {
+            int fields = reader.getFieldCount();
+            if (fields == 1 && reader.getFieldLength(0) == 0) {
+                continue; // Blank line
+            }
+            int i = chunk.size++;
+            chunk.ids[i] = reader.getString(PROFILE_ID);
+            chunk.maxFees[i] = fields > MAX_FEE ? reader.getDouble(MAX_FEE, RecommendationEngine.NO_LIMIT) : RecommendationEngine.NO_LIMIT;
+            chunk.maxRates[i] = fields > MAX_RATE ? reader.getDouble(MAX_RATE, RecommendationEngine.NO_LIMIT) : RecommendationEngine.NO_LIMIT;
+            chunk.keywords[i] = fields > REWARDS ? reader.getString(REWARDS) : "";
+        }
+    }
+
+    private void evaluate(Chunk chunk, int i) {
+        long start = System.nanoTime();
+        StringBuilder line = new StringBuilder(64 + topCards * 40);
+        appendField(line, chunk.ids[i]);
+        try {
+            TopKRecommender.Page page = engine.recommendTop(chunk.maxFees[i], chunk.maxRates[i], chunk.keywords[i],
+                    Math.max(1, topCards), TopKRecommender.Weights.DEFAULT);
+            line.append(',').append(page.getCursor().getTotalMatches()).append(',');
+
+            CardStore store = engine.getStore();
+            StringBuilder names = new StringBuilder();
+            int[] rows = page.getRows();
+            for (int r = 0; r < rows.length && r < topCards; r++) {
+                if (r > 0) {
+                    names.append("; ");
+                }
+                names.append(store.getName(rows[r]));
+            }
+            appendField(line, names.toString());
+        } catch (RuntimeException e) {
+            // A bad profile should not abort an overnight run
+            failures.incrementAndGet();
+            line.append(",ERROR,");
+            appendField(line, String.valueOf(e.getMessage()));
+        }
+        line.append('\n');
+        chunk.results[i] = line.toString();
+        latencies.recordNanos(System.nanoTime() - start);
+    }
+
+    // RFC 4180 quoting, only when needed
+    private static void appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,350 @@
+package org.example;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Batch spell checking of whole texts: offer texts, crawled pages, query logs.
+// Texts are taken from an iterator in fixed-size batches, so input of any size streams through
+// with at most two batches in memory. Each batch is tokenized in parallel into a per-batch memo
+// of distinct words and their counts, every distinct unknown word is corrected once, in
+// parallel, and the corrections are reported while the next batch is being read. Corrections
+// are kept in a bounded LRU cache across batches, so a recurring typo is looked up once.
+//
+// Usage: BulkSpellChecker <textFile>... [-o outputCsv] [-c catalogCsv] [-p parallelism]
+// Every line of the text files is one text. Output file: Word,Correction,Occurrences
+// (one row per unknown word, occurrences summed over every batch and input file).
+public class BulkSpellChecker {
+
+    public static final int DEFAULT_BATCH_SIZE = 8192;
+    public static final int DEFAULT_CORRECTION_CACHE_SIZE = 65536;
+
+    // Cached for words with no correction, since the cache cannot hold null
+    private static final String NO_CORRECTION = new String();
+
+    // Receives each distinct unknown word of a batch with its correction (null when none).
+    // A word that recurs in later batches is reported again with those batches' occurrences.
+    public interface CorrectionListener {
+        void onCorrection(String word, String correction, int occurrences);
+    }
+
+    // Totals over one check call
+    public static final class Stats {
+        private long texts;
+        private long tokens;
+        private long distinctWords;
+        private long numericTokens;
+        private long unknownTokens;
+        private long distinctUnknown;
+        private long corrected;
+        private long cachedCorrections;
+        private int batches;
+        private long nanos;
+
+        public long getTexts() {
+            return texts;
+        }
+
+        public long getTokens() {
+            return tokens;
+        }
+
+        // Distinct words summed over batches; the rest of the tokens were answered by the memo
+        public long getDistinctWords() {
+            return distinctWords;
+        }
+
+        public long getMemoHits() {
+            return tokens - distinctWords;
+        }
+
+        // Words made only of digits are counted but never corrected
+        public long getNumericTokens() {
+            return numericTokens;
+        }
+
+        public long getUnknownTokens() {
+            return unknownTokens;
+        }
+
+        // Distinct unknown words summed over batches
+        public long getDistinctUnknown() {
+            return distinctUnknown;
+        }
+
+        // Of those, the ones answered by the correction cache instead of a lookup
+        public long getCachedCorrections() {
+            return cachedCorrections;
+        }
+
+        public long getCorrected() {
+            return corrected;
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+
+        public long getElapsedNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+            return String.format("%,d texts, %,d tokens in %.2f s (%,.0f tokens/s, %d batches); "
+                            + "%,d memo hits, %,d numeric, %,d unknown tokens (%,d distinct per batch, "
+                            + "%,d from the correction cache, %,d corrected)",
+                    texts, tokens, seconds, seconds == 0 ? 0 : tokens / seconds, batches,
+                    getMemoHits(), numericTokens, unknownTokens, distinctUnknown, cachedCorrections, corrected);
+        }
+    }
+
+    // Distinct words of one batch in first-seen order, with counts and corrections
+    private static final class Batch {
+        final String[] texts;
+        int size;
+        Memo memo;
+        String[] unknown;
+        int[] unknownCounts;
+        String[] corrections;
+        int cachedCorrections;
+
+        Batch(int capacity) {
+            texts = new String[capacity];
+        }
+    }
+
+    // Word counts in first-seen order (term ids are assigned in insertion order); merged left to
+    // right so the order is deterministic
+    private static final class Memo {
+        final TermDictionary counts = new TermDictionary();
+        long tokens;
+
+        void addText(String text) {
+            tokens += Tokenizer.get().tokenize(text, (word, length) -> counts.add(word, 0, length, 1));
+        }
+
+        void merge(Memo other) {
+            TermDictionary.TermView word = other.counts.newView();
+            for (int id = 0; id < other.counts.size(); id++) {
+                counts.add(word.moveTo(id), other.counts.getCount(id));
+            }
+            tokens += other.tokens;
+        }
+    }
+
+    private final SpellChecker checker;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+
+    // Unknown word -> correction, least recently used first; only touched by one batch at a time
+    private final LinkedHashMap<String, String> corrections;
+
+    public BulkSpellChecker(SpellChecker checker, ForkJoinPool pool, int batchSize) {
+        this(checker, pool, batchSize, DEFAULT_CORRECTION_CACHE_SIZE);
+    }
+
+    public BulkSpellChecker(SpellChecker checker, ForkJoinPool pool, int batchSize, int correctionCacheSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (correctionCacheSize < 0) {
+            throw new IllegalArgumentException("Correction cache size must not be negative: " + correctionCacheSize);
+        }
+        this.checker = checker;
+        this.pool = pool;
+        this.batchSize = batchSize;
+        this.corrections = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > correctionCacheSize;
+            }
+        };
+    }
+
+    public BulkSpellChecker(SpellChecker checker) {
+        this(checker, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+    }
+
+    public Stats check(Stream<String> texts, CorrectionListener listener) {
+        return check(texts.iterator(), listener);
+    }
+
+    // Every line is one text
+    public Stats checkLines(BufferedReader reader, CorrectionListener listener) {
+        return check(reader.lines(), listener);
+    }
+
+    // The listener is called on the calling thread, batch by batch in input order
+    public Stats check(Iterator<String> texts, CorrectionListener listener) {
+        Stats stats = new Stats();
+        long start = System.nanoTime();
+
+        // Two batches alternate: one is checked on the pool while the other is refilled
+        Batch current = new Batch(batchSize);
+        Batch next = new Batch(batchSize);
+        fill(texts, current);
+        while (current.size > 0) {
+            Batch checking = current;
+            ForkJoinTask<?> task = pool.submit(() -> process(checking));
+            fill(texts, next);
+            task.join();
+
+            report(current, stats, listener);
+
+            current = next;
+            next = checking;
+        }
+        stats.nanos = System.nanoTime() - start;
+        return stats;
+    }
+
+    private void fill(Iterator<String> texts, Batch batch) {
+        batch.size = 0;
+        while (batch.size < batch.texts.length && texts.hasNext()) {
+            batch.texts[batch.size++] = texts.next();
+        }
+    }
+
+    // Runs on the pool
+    private void process(Batch batch) {
+        batch.memo = IntStream.range(0, batch.size).parallel()
+                .collect(Memo::new, (memo, i) -> memo.addText(batch.texts[i]), Memo::merge);
+
+        TermDictionary counts = batch.memo.counts;
+        TermDictionary.TermView view = counts.newView();
+        List<String> unknown = new ArrayList<>();
+        List<Integer> unknownCounts = new ArrayList<>();
+        for (int id = 0; id < counts.size(); id++) {
+            if (isNumeric(view.moveTo(id))) {
+                continue;
+            }
+            String word = counts.getTerm(id);
+            if (!checker.isCorrect(word)) {
+                unknown.add(word);
+                unknownCounts.add(counts.getCount(id));
+            }
+        }
+        batch.unknown = unknown.toArray(new String[0]);
+        batch.unknownCounts = unknownCounts.stream().mapToInt(Integer::intValue).toArray();
+        batch.corrections = new String[batch.unknown.length];
+
+        // Words corrected in an earlier batch come from the cache; the rest are looked up in parallel
+        synchronized (corrections) {
+            int[] misses = new int[batch.unknown.length];
+            int missCount = 0;
+            for (int i = 0; i < batch.unknown.length; i++) {
+                String cached = corrections.get(batch.unknown[i]);
+                if (cached == null) {
+                    misses[missCount++] = i;
+                } else {
+                    batch.corrections[i] = cached == NO_CORRECTION ? null : cached;
+                }
+            }
+            batch.cachedCorrections = batch.unknown.length - missCount;
+            IntStream.range(0, missCount).parallel()
+                    .forEach(m -> batch.corrections[misses[m]] = checker.closestWord(batch.unknown[misses[m]]));
+            for (int m = 0; m < missCount; m++) {
+                String correction = batch.corrections[misses[m]];
+                corrections.put(batch.unknown[misses[m]], correction == null ? NO_CORRECTION : correction);
+            }
+        }
+    }
+
+    private static void report(Batch batch, Stats stats, CorrectionListener listener) {
+        stats.batches++;
+        stats.texts += batch.size;
+        stats.tokens += batch.memo.tokens;
+        TermDictionary counts = batch.memo.counts;
+        TermDictionary.TermView view = counts.newView();
+        stats.distinctWords += counts.size();
+        stats.cachedCorrections += batch.cachedCorrections;
+        for (int id = 0; id < counts.size(); id++) {
+            if (isNumeric(view.moveTo(id))) {
+                stats.numericTokens += counts.getCount(id);
+            }
+        }
+        for (int i = 0; i < batch.unknown.length; i++) {
+            stats.unknownTokens += batch.unknownCounts[i];
+            stats.distinctUnknown++;
+            if (batch.corrections[i] != null) {
+                stats.corrected++;
+            }
+            if (listener != null) {
+                listener.onCorrection(batch.unknown[i], batch.corrections[i], batch.unknownCounts[i]);
+            }
+        }
+        Arrays.fill(batch.texts, 0, batch.size, null);
+        batch.memo = null;
+    }
+
+    private static boolean isNumeric(CharSequence word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> inputs = new ArrayList<>();
+        String outputFile = null;
+        String catalogFile = "combined_credit_cards.csv";
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o" -> outputFile = args[++i];
+                case "-c" -> catalogFile = args[++i];
+                case "-p" -> parallelism = Integer.parseInt(args[++i]);
+                default -> inputs.add(args[i]);
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: BulkSpellChecker <textFile>... [-o outputCsv] [-c catalogCsv] [-p parallelism]");
+            System.exit(2);
+        }
+
+        CardStore cards = CatalogSnapshot.loadStore(catalogFile);
+        SpellChecker checker = new SpellChecker(SpellIndex.loadVocabulary(catalogFile, cards));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        // Occurrences of each unknown word over every batch and input, in first-seen order
+        TermDictionary unknownWords = new TermDictionary();
+        List<String> wordCorrections = new ArrayList<>();
+        try {
+            BulkSpellChecker bulk = new BulkSpellChecker(checker, pool, DEFAULT_BATCH_SIZE);
+            for (String input : inputs) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new FileInputStream(input), StandardCharsets.UTF_8), 1 << 16)) {
+                    Stats stats = bulk.checkLines(reader, (word, correction, occurrences) -> {
+                        if (unknownWords.add(word, occurrences) == wordCorrections.size()) {
+                            wordCorrections.add(correction);
+                        }
+                    });
+                    System.out.println(input + ": " + stats);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if (outputFile != null) {
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(outputFile), StandardCharsets.UTF_8), 1 << 16)) {
+                out.write("Word,Correction,Occurrences\n");
+                for (int id = 0; id < unknownWords.size(); id++) {
+                    String correction = wordCorrections.get(id);
+                    // Words are letters and digits only, so no field needs quoting
+                    out.write(unknownWords.getTerm(id) + "," + (correction == null ? "" : correction) + ","
+                            + unknownWords.getCount(id) + "\n");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,734 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Compressed bitmap over card row ids, organized like Roaring.
+// Row ids are split into a 16-bit high key and a 16-bit low value. Each key owns a container:
+// a sorted char array for sparse chunks, a 1024-word bitmap for dense chunks, or a list of
+// runs for long consecutive ranges. AND/OR/ANDNOT between bitmap containers work a 64-bit word
+// at a time; sparse containers merge. Bitmaps are immutable, so they can be cached and shared.
+public final class CardBitmap {
+
+    // Above this many values an array container is larger than a bitmap container
+    static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private static final CardBitmap EMPTY = new CardBitmap(new char[0], new Container[0], 0);
+
+    private final char[] keys;
+    private final Container[] containers;
+    private final int size;
+    private final int cardinality;
+
+    private CardBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality();
+        }
+        this.cardinality = total;
+    }
+
+    public static CardBitmap empty() {
+        return EMPTY;
+    }
+
+    // Build from row ids in ascending order; duplicates are ignored
+    public static CardBitmap of(int[] sortedRows) {
+        return of(sortedRows, sortedRows.length);
+    }
+
+    public static CardBitmap of(int[] sortedRows, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        char[] keys = new char[Math.max(1, (sortedRows[length - 1] >>> 16) - (sortedRows[0] >>> 16) + 1)];
+        Container[] containers = new Container[keys.length];
+        int size = 0;
+        int start = 0;
+        while (start < length) {
+            int high = sortedRows[start] >>> 16;
+            int end = start;
+            while (end < length && sortedRows[end] >>> 16 == high) {
+                end++;
+            }
+            keys[size] = (char) high;
+            containers[size] = Container.fromSorted(sortedRows, start, end);
+            size++;
+            start = end;
+        }
+        return new CardBitmap(keys, containers, size);
+    }
+
+    // Build from row ids in any order
+    public static CardBitmap fromUnsorted(int[] rows) {
+        int[] sorted = rows.clone();
+        Arrays.sort(sorted);
+        return of(sorted);
+    }
+
+    // Every row id in [start, end), stored as run containers
+    public static CardBitmap range(int start, int end) {
+        if (end <= start) {
+            return EMPTY;
+        }
+        int firstKey = start >>> 16;
+        int lastKey = (end - 1) >>> 16;
+        char[] keys = new char[lastKey - firstKey + 1];
+        Container[] containers = new Container[keys.length];
+        for (int key = firstKey; key <= lastKey; key++) {
+            int low = key == firstKey ? start & 0xFFFF : 0;
+            int high = key == lastKey ? (end - 1) & 0xFFFF : 0xFFFF;
+            keys[key - firstKey] = (char) key;
+            containers[key - firstKey] = new RunContainer(new char[]{(char) low, (char) (high - low)}, 1);
+        }
+        return new CardBitmap(keys, containers, keys.length);
+    }
+
+    public int getCardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int row) {
+        int index = keyIndex((char) (row >>> 16));
+        return index >= 0 && containers[index].contains((char) row);
+    }
+
+    public CardBitmap and(CardBitmap other) {
+        char[] resultKeys = new char[Math.min(size, other.size)];
+        Container[] result = new Container[resultKeys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container c = Container.and(containers[i], other.containers[j]);
+                if (c.cardinality() > 0) {
+                    resultKeys[count] = keys[i];
+                    result[count++] = c;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new CardBitmap(resultKeys, result, count);
+    }
+
+    public CardBitmap or(CardBitmap other) {
+        char[] resultKeys = new char[size + other.size];
+        Container[] result = new Container[resultKeys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                resultKeys[count] = keys[i];
+                result[count++] = containers[i++];
+            } else if (i == size || keys[i] > other.keys[j]) {
+                resultKeys[count] = other.keys[j];
+                result[count++] = other.containers[j++];
+            } else {
+                resultKeys[count] = keys[i];
+                result[count++] = Container.or(containers[i], other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return new CardBitmap(resultKeys, result, count);
+    }
+
+    public CardBitmap andNot(CardBitmap other) {
+        char[] resultKeys = new char[size];
+        Container[] result = new Container[size];
+        int count = 0;
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container c = j < other.size && other.keys[j] == keys[i]
+                    ? Container.andNot(containers[i], other.containers[j])
+                    : containers[i];
+            if (c.cardinality() > 0) {
+                resultKeys[count] = keys[i];
+                result[count++] = c;
+            }
+        }
+        return new CardBitmap(resultKeys, result, count);
+    }
+
+    // Size of the intersection without building it
+    public int andCardinality(CardBitmap other) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                total += Container.andCardinality(containers[i], other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    // Convert containers to runs wherever that is the smaller encoding
+    public CardBitmap runOptimize() {
+        Container[] optimized = new Container[size];
+        for (int i = 0; i < size; i++) {
+            optimized[i] = containers[i].runOptimize();
+        }
+        return new CardBitmap(keys, optimized, size);
+    }
+
+    // Row ids in ascending order
+    public int[] toArray() {
+        return page(0, cardinality);
+    }
+
+    // Up to "limit" row ids starting at the given ordinal; whole containers are skipped by count
+    public int[] page(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Negative offset or limit");
+        }
+        int total = Math.max(0, Math.min(limit, cardinality - offset));
+        int[] out = new int[total];
+        int written = 0;
+        int skip = offset;
+        for (int i = 0; i < size && written < total; i++) {
+            int c = containers[i].cardinality();
+            if (skip >= c) {
+                skip -= c;
+                continue;
+            }
+            written += containers[i].fill(out, written, keys[i] << 16, skip, total - written);
+            skip = 0;
+        }
+        return out;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    // Approximate heap footprint, used to bound caches
+    public long estimatedBytes() {
+        long bytes = 32 + 2L * keys.length + 8L * containers.length;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].estimatedBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CardBitmap)) {
+            return false;
+        }
+        CardBitmap other = (CardBitmap) o;
+        return cardinality == other.cardinality && Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "CardBitmap{cardinality=" + cardinality + ", containers=" + size + "}";
+    }
+
+    private int keyIndex(char key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else if (keys[mid] > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // One 65536-value chunk of the bitmap
+    private abstract static class Container {
+
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        // Write up to "count" values starting at ordinal "skip"; returns how many were written
+        abstract int fill(int[] out, int position, int base, int skip, int count);
+
+        abstract void forEach(int base, IntConsumer action);
+
+        abstract long estimatedBytes();
+
+        // Array or bitmap form; run containers convert themselves for set operations
+        abstract Container toArrayOrBitmap();
+
+        abstract Container runOptimize();
+
+        static Container fromSorted(int[] rows, int start, int end) {
+            char[] values = new char[end - start];
+            int n = 0;
+            for (int i = start; i < end; i++) {
+                char value = (char) rows[i];
+                if (n == 0 || values[n - 1] != value) {
+                    values[n++] = value;
+                }
+            }
+            ArrayContainer array = new ArrayContainer(values, n);
+            return n > ARRAY_MAX ? array.toBitmap() : array;
+        }
+
+        static Container and(Container a, Container b) {
+            a = a.toArrayOrBitmap();
+            b = b.toArrayOrBitmap();
+            if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+                long[] x = ((BitmapContainer) a).words;
+                long[] y = ((BitmapContainer) b).words;
+                long[] words = new long[WORDS];
+                for (int k = 0; k < WORDS; k++) {
+                    words[k] = x[k] & y[k];
+                }
+                return BitmapContainer.of(words);
+            }
+            if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+                ArrayContainer x = (ArrayContainer) a;
+                ArrayContainer y = (ArrayContainer) b;
+                char[] values = new char[Math.min(x.cardinality, y.cardinality)];
+                int n = 0;
+                int i = 0;
+                int j = 0;
+                while (i < x.cardinality && j < y.cardinality) {
+                    if (x.values[i] < y.values[j]) {
+                        i++;
+                    } else if (x.values[i] > y.values[j]) {
+                        j++;
+                    } else {
+                        values[n++] = x.values[i];
+                        i++;
+                        j++;
+                    }
+                }
+                return new ArrayContainer(values, n);
+            }
+            ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+            BitmapContainer bitmap = (BitmapContainer) (a instanceof BitmapContainer ? a : b);
+            char[] values = new char[array.cardinality];
+            int n = 0;
+            for (int i = 0; i < array.cardinality; i++) {
+                if (bitmap.contains(array.values[i])) {
+                    values[n++] = array.values[i];
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+
+        static Container or(Container a, Container b) {
+            a = a.toArrayOrBitmap();
+            b = b.toArrayOrBitmap();
+            if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+                ArrayContainer x = (ArrayContainer) a;
+                ArrayContainer y = (ArrayContainer) b;
+                if (x.cardinality + y.cardinality > ARRAY_MAX) {
+                    long[] words = x.toBitmap().words.clone();
+                    y.setBits(words);
+                    return BitmapContainer.of(words);
+                }
+                char[] values = new char[x.cardinality + y.cardinality];
+                int n = 0;
+                int i = 0;
+                int j = 0;
+                while (i < x.cardinality && j < y.cardinality) {
+                    if (x.values[i] < y.values[j]) {
+                        values[n++] = x.values[i++];
+                    } else if (x.values[i] > y.values[j]) {
+                        values[n++] = y.values[j++];
+                    } else {
+                        values[n++] = x.values[i];
+                        i++;
+                        j++;
+                    }
+                }
+                while (i < x.cardinality) {
+                    values[n++] = x.values[i++];
+                }
+                while (j < y.cardinality) {
+                    values[n++] = y.values[j++];
+                }
+                return new ArrayContainer(values, n);
+            }
+            if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+                long[] x = ((BitmapContainer) a).words;
+                long[] y = ((BitmapContainer) b).words;
+                long[] words = new long[WORDS];
+                for (int k = 0; k < WORDS; k++) {
+                    words[k] = x[k] | y[k];
+                }
+                return BitmapContainer.of(words);
+            }
+            ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+            BitmapContainer bitmap = (BitmapContainer) (a instanceof BitmapContainer ? a : b);
+            long[] words = bitmap.words.clone();
+            array.setBits(words);
+            return BitmapContainer.of(words);
+        }
+
+        static Container andNot(Container a, Container b) {
+            a = a.toArrayOrBitmap();
+            b = b.toArrayOrBitmap();
+            if (a instanceof BitmapContainer) {
+                long[] words = ((BitmapContainer) a).words.clone();
+                if (b instanceof BitmapContainer) {
+                    long[] y = ((BitmapContainer) b).words;
+                    for (int k = 0; k < WORDS; k++) {
+                        words[k] &= ~y[k];
+                    }
+                } else {
+                    ArrayContainer y = (ArrayContainer) b;
+                    for (int i = 0; i < y.cardinality; i++) {
+                        words[y.values[i] >>> 6] &= ~(1L << y.values[i]);
+                    }
+                }
+                return BitmapContainer.of(words);
+            }
+            ArrayContainer x = (ArrayContainer) a;
+            char[] values = new char[x.cardinality];
+            int n = 0;
+            for (int i = 0; i < x.cardinality; i++) {
+                if (!b.contains(x.values[i])) {
+                    values[n++] = x.values[i];
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+
+        static int andCardinality(Container a, Container b) {
+            a = a.toArrayOrBitmap();
+            b = b.toArrayOrBitmap();
+            if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+                long[] x = ((BitmapContainer) a).words;
+                long[] y = ((BitmapContainer) b).words;
+                int count = 0;
+                for (int k = 0; k < WORDS; k++) {
+                    count += Long.bitCount(x[k] & y[k]);
+                }
+                return count;
+            }
+            ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+            Container other = array == a ? b : a;
+            int count = 0;
+            for (int i = 0; i < array.cardinality; i++) {
+                if (other.contains(array.values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        final char[] values;
+        final int cardinality;
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int fill(int[] out, int position, int base, int skip, int count) {
+            int n = Math.min(count, cardinality - skip);
+            for (int i = 0; i < n; i++) {
+                out[position + i] = base | values[skip + i];
+            }
+            return n;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        long estimatedBytes() {
+            return 16 + 2L * values.length;
+        }
+
+        @Override
+        Container toArrayOrBitmap() {
+            return this;
+        }
+
+        @Override
+        Container runOptimize() {
+            int runs = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (i == 0 || values[i] != values[i - 1] + 1) {
+                    runs++;
+                }
+            }
+            if (4L * runs >= 2L * cardinality) {
+                return this;
+            }
+            char[] pairs = new char[2 * runs];
+            int r = -1;
+            for (int i = 0; i < cardinality; i++) {
+                if (i == 0 || values[i] != values[i - 1] + 1) {
+                    r++;
+                    pairs[2 * r] = values[i];
+                    pairs[2 * r + 1] = 0;
+                } else {
+                    pairs[2 * r + 1]++;
+                }
+            }
+            return new RunContainer(pairs, runs);
+        }
+
+        void setBits(long[] words) {
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+        }
+
+        BitmapContainer toBitmap() {
+            long[] words = new long[WORDS];
+            setBits(words);
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        final int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        // Wrap computed words, shrinking to an array container when sparse enough
+        static Container of(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+            return cardinality <= ARRAY_MAX ? bitmap.toArray() : bitmap;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int fill(int[] out, int position, int base, int skip, int count) {
+            int written = 0;
+            for (int k = 0; k < WORDS && written < count; k++) {
+                long word = words[k];
+                int bits = Long.bitCount(word);
+                if (skip >= bits) {
+                    skip -= bits;
+                    continue;
+                }
+                while (word != 0 && written < count) {
+                    long lowest = word & -word;
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        out[position + written++] = base | (k << 6) | Long.numberOfTrailingZeros(lowest);
+                    }
+                    word ^= lowest;
+                }
+            }
+            return written;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int k = 0; k < WORDS; k++) {
+                long word = words[k];
+                while (word != 0) {
+                    action.accept(base | (k << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        long estimatedBytes() {
+            return 16 + 8L * WORDS;
+        }
+
+        @Override
+        Container toArrayOrBitmap() {
+            return this;
+        }
+
+        @Override
+        Container runOptimize() {
+            Container array = toArray();
+            Container runs = ((ArrayContainer) array).runOptimize();
+            return runs instanceof RunContainer && runs.estimatedBytes() < estimatedBytes() ? runs : this;
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int k = 0; k < WORDS; k++) {
+                long word = words[k];
+                while (word != 0) {
+                    values[n++] = (char) ((k << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+
+    // Runs stored as (start, length - 1) pairs
+    private static final class RunContainer extends Container {
+        final char[] runs;
+        final int runCount;
+        final int cardinality;
+
+        RunContainer(char[] runs, int runCount) {
+            this.runs = runs;
+            this.runCount = runCount;
+            int total = 0;
+            for (int r = 0; r < runCount; r++) {
+                total += runs[2 * r + 1] + 1;
+            }
+            this.cardinality = total;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            int low = 0;
+            int high = runCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int start = runs[2 * mid];
+                if (value < start) {
+                    high = mid - 1;
+                } else if (value > start + runs[2 * mid + 1]) {
+                    low = mid + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int fill(int[] out, int position, int base, int skip, int count) {
+            int written = 0;
+            for (int r = 0; r < runCount && written < count; r++) {
+                int start = runs[2 * r];
+                int length = runs[2 * r + 1] + 1;
+                if (skip >= length) {
+                    skip -= length;
+                    continue;
+                }
+                for (int v = start + skip; v < start + length && written < count; v++) {
+                    out[position + written++] = base | v;
+                }
+                skip = 0;
+            }
+            return written;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int r = 0; r < runCount; r++) {
+                int start = runs[2 * r];
+                int end = start + runs[2 * r + 1];
+                for (int v = start; v <= end; v++) {
+                    action.accept(base | v);
+                }
+            }
+        }
+
+        @Override
+        long estimatedBytes() {
+            return 16 + 2L * runs.length;
+        }
+
+        @Override
+        Container toArrayOrBitmap() {
+            if (cardinality <= ARRAY_MAX) {
+                char[] values = new char[cardinality];
+                int n = 0;
+                for (int r = 0; r < runCount; r++) {
+                    int start = runs[2 * r];
+                    int end = start + runs[2 * r + 1];
+                    for (int v = start; v <= end; v++) {
+                        values[n++] = (char) v;
+                    }
+                }
+                return new ArrayContainer(values, n);
+            }
+            long[] words = new long[WORDS];
+            for (int r = 0; r < runCount; r++) {
+                int start = runs[2 * r];
+                int end = start + runs[2 * r + 1];
+                for (int v = start; v <= end; v++) {
+                    words[v >>> 6] |= 1L << v;
+                }
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+
+        @Override
+        Container runOptimize() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.example;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Loads the card catalog from the scraper CSV using the streaming CsvRecordReader
+public class CardCsvLoader {
+
+    // Column positions in the catalog file; the scrapers write the bank first
+    // (Bank Name,Card Name,Annual Fee,Interest Rate,Offers)
+    static final int BANK_COLUMN = 0;
+    static final int NAME_COLUMN = 1;
+    static final int ANNUAL_FEE_COLUMN = 2;
+    static final int INTEREST_RATE_COLUMN = 3;
+    static final int REWARDS_COLUMN = 4;
+    static final int MIN_COLUMNS = 5;
+
+    // Value stored for "N/A" or unparseable numeric columns
+    public static final double NOT_AVAILABLE = -1;
+
+    // Load every card from a CSV file, skipping the header line
+    public static List<CreditCard> loadCards(String csvFile) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(csvFile), StandardCharsets.UTF_8)) {
+            return readCards(reader);
+        }
+    }
+
+    // Read cards from any character stream, skipping the header line
+    public static List<CreditCard> readCards(Reader reader) throws IOException {
+        List<CreditCard> cardsList = new ArrayList<>();
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        if (!csv.nextRecord()) {
+            return cardsList; // Empty file, not even a header
+        }
+        while (csv.nextRecord()) {
+            if (csv.getFieldCount() < MIN_COLUMNS) {
+                continue;
+            }
+            cardsList.add(new CreditCard(
+                    csv.getString(NAME_COLUMN),
+                    csv.getString(BANK_COLUMN),
+                    csv.getDouble(ANNUAL_FEE_COLUMN, NOT_AVAILABLE),
+                    csv.getDouble(INTEREST_RATE_COLUMN, NOT_AVAILABLE),
+                    csv.getString(REWARDS_COLUMN)
+            ));
+        }
+        return cardsList;
+    }
+
+    // Load a CSV file straight into a columnar store
+    public static CardStore loadStore(String csvFile) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(csvFile), StandardCharsets.UTF_8)) {
+            return readStore(reader);
+        }
+    }
+
+    // Read cards into a columnar store without creating CreditCard objects
+    public static CardStore readStore(Reader reader) throws IOException {
+        CardStore store = new CardStore();
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        if (!csv.nextRecord()) {
+            return store;
+        }
+        while (csv.nextRecord()) {
+            if (csv.getFieldCount() < MIN_COLUMNS) {
+                continue;
+            }
+            store.add(
+                    csv.getString(NAME_COLUMN),
+                    csv.getString(BANK_COLUMN),
+                    csv.getDouble(ANNUAL_FEE_COLUMN, NOT_AVAILABLE),
+                    csv.getDouble(INTEREST_RATE_COLUMN, NOT_AVAILABLE),
+                    csv.getString(REWARDS_COLUMN)
+            );
+        }
+        return store;
+    }
+}
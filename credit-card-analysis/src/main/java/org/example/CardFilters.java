@@ -0,0 +1,221 @@
+package org.example;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Builds a CardBitmap for each card predicate and caches the bitmaps of common predicates.
+// Fee and APR caps come from sorted range indexes, rewards keywords from the inverted index,
+// and bank filters from the dictionary-encoded bank column. The results compose with
+// CardBitmap.and/or/andNot, can be counted with getCardinality and paged with page().
+// One instance serves concurrent readers: the cache is a ConcurrentHashMap and bitmaps are
+// built without holding a lock, so misses on different predicates run in parallel. Only
+// rebuilding the range indexes after a catalog change is serialized. The bitmaps it hands out
+// are immutable.
+public class CardFilters {
+
+    private static final int MAX_CACHED_PREDICATES = 256;
+
+    private final CardStore store;
+    private final InvertedIndex rewardsIndex;
+
+    // Access stamps for least-recently-used eviction
+    private final AtomicLong clock = new AtomicLong();
+
+    // Replaced as a whole when the catalog or the N/A setting changes, so a lookup that started
+    // on the old state can never put its bitmap into the new cache.
+    // Cards whose fee or rate is N/A pass the corresponding cap by default, as the original
+    // filter did.
+    private volatile State state = new State(-1, true, null, null);
+
+    public CardFilters(CardStore store, InvertedIndex rewardsIndex) {
+        this.store = store;
+        this.rewardsIndex = rewardsIndex;
+    }
+
+    public boolean isIncludeUnknownValues() {
+        return state.includeUnknownValues;
+    }
+
+    // Whether cards with an N/A fee or rate count as matching a fee or rate cap
+    public synchronized void setIncludeUnknownValues(boolean includeUnknownValues) {
+        State current = state;
+        if (current.includeUnknownValues != includeUnknownValues) {
+            state = new State(current.version, includeUnknownValues, current.feeIndex, current.rateIndex);
+        }
+    }
+
+    // Every card in the catalog
+    public CardBitmap all() {
+        State current = current();
+        return cached(current, "all", () -> CardBitmap.range(0, store.size()));
+    }
+
+    public CardBitmap annualFeeAtMost(double maxFee) {
+        State current = current();
+        return cached(current, "fee<=" + maxFee, () -> atMost(current, current.feeIndex, maxFee));
+    }
+
+    public CardBitmap interestRateAtMost(double maxInterestRate) {
+        State current = current();
+        return cached(current, "apr<=" + maxInterestRate, () -> atMost(current, current.rateIndex, maxInterestRate));
+    }
+
+    public CardBitmap bank(String bankName) {
+        State current = current();
+        return cached(current, "bank=" + bankName, () -> {
+            int bankId = store.findBankId(bankName);
+            if (bankId < 0) {
+                return CardBitmap.empty();
+            }
+            int[] rows = new int[store.size()];
+            int count = 0;
+            for (int row = 0; row < store.size(); row++) {
+                if (store.getBankId(row) == bankId) {
+                    rows[count++] = row;
+                }
+            }
+            return CardBitmap.of(rows, count);
+        });
+    }
+
+    // Offers containing the keyword (case-insensitive substring, as in the original filter)
+    public CardBitmap rewardsKeyword(String rewardsKeyword) {
+        String keyword = normalizeKeyword(rewardsKeyword);
+        if (keyword.isEmpty()) {
+            return all();
+        }
+        return cached(current(), "rewards~" + keyword, () -> {
+            // The trigram index narrows the candidates; the substring check confirms each one
+            int[] candidates = rewardsIndex.matchKeyword(keyword);
+            int[] rows = new int[candidates == null ? store.size() : candidates.length];
+            int count = 0;
+            if (candidates == null) {
+                for (int row = 0; row < store.size(); row++) {
+                    if (containsKeyword(row, keyword)) {
+                        rows[count++] = row;
+                    }
+                }
+            } else {
+                for (int row : candidates) {
+                    if (containsKeyword(row, keyword)) {
+                        rows[count++] = row;
+                    }
+                }
+            }
+            return CardBitmap.of(rows, count);
+        });
+    }
+
+    // Row-by-row form of rewardsKeyword, for re-checking a few rows without a bitmap
+    public boolean matchesRewardsKeyword(int row, String rewardsKeyword) {
+        String keyword = normalizeKeyword(rewardsKeyword);
+        return keyword.isEmpty() || containsKeyword(row, keyword);
+    }
+
+    // Drop every cached bitmap
+    public void clearCache() {
+        state.cache.clear();
+    }
+
+    public int getCachedPredicateCount() {
+        return state.cache.size();
+    }
+
+    // Lower case and trimmed; shared with RecommendationCache.Key
+    static String normalizeKeyword(String rewardsKeyword) {
+        return rewardsKeyword == null ? "" : rewardsKeyword.toLowerCase().trim();
+    }
+
+    private boolean containsKeyword(int row, String keyword) {
+        return store.rewardsContain(row, keyword);
+    }
+
+    private static CardBitmap atMost(State state, RangeIndex index, double max) {
+        // N/A rows are stored as the -1 sentinel and only qualify when the cap admits it
+        boolean includeUnknown = state.includeUnknownValues && CardCsvLoader.NOT_AVAILABLE <= max;
+        return CardBitmap.fromUnsorted(index.rowsAtMost(max, includeUnknown));
+    }
+
+    // Built outside any lock; two threads missing on the same key may both build it, and the
+    // first one stored wins
+    private CardBitmap cached(State state, String key, Supplier<CardBitmap> builder) {
+        CachedBitmap entry = state.cache.get(key);
+        if (entry == null) {
+            entry = new CachedBitmap(builder.get(), clock.incrementAndGet());
+            CachedBitmap stored = state.cache.putIfAbsent(key, entry);
+            if (stored != null) {
+                entry = stored;
+            } else if (state.cache.size() > MAX_CACHED_PREDICATES) {
+                evictLeastRecentlyUsed(state);
+            }
+        }
+        entry.lastUsed = clock.incrementAndGet();
+        return entry.bitmap;
+    }
+
+    private static void evictLeastRecentlyUsed(State state) {
+        // One evicting thread per cache; the scan is over at most a few hundred entries
+        synchronized (state) {
+            while (state.cache.size() > MAX_CACHED_PREDICATES) {
+                String eldestKey = null;
+                long eldest = Long.MAX_VALUE;
+                for (Map.Entry<String, CachedBitmap> entry : state.cache.entrySet()) {
+                    if (entry.getValue().lastUsed < eldest) {
+                        eldest = entry.getValue().lastUsed;
+                        eldestKey = entry.getKey();
+                    }
+                }
+                if (eldestKey == null) {
+                    return;
+                }
+                state.cache.remove(eldestKey);
+            }
+        }
+    }
+
+    // The state for the store's current version, rebuilding the range indexes after a change
+    private State current() {
+        State current = state;
+        long version = store.getVersion();
+        if (current.version == version) {
+            return current;
+        }
+        synchronized (this) {
+            current = state;
+            if (current.version != version) {
+                current = new State(version, current.includeUnknownValues,
+                        RangeIndex.build(store, RangeIndex.ANNUAL_FEE), RangeIndex.build(store, RangeIndex.INTEREST_RATE));
+                state = current;
+            }
+            return current;
+        }
+    }
+
+    // Range indexes and cached bitmaps for one catalog version and N/A setting
+    private static final class State {
+        final long version;
+        final boolean includeUnknownValues;
+        final RangeIndex feeIndex;
+        final RangeIndex rateIndex;
+        final Map<String, CachedBitmap> cache = new ConcurrentHashMap<>();
+
+        State(long version, boolean includeUnknownValues, RangeIndex feeIndex, RangeIndex rateIndex) {
+            this.version = version;
+            this.includeUnknownValues = includeUnknownValues;
+            this.feeIndex = feeIndex;
+            this.rateIndex = rateIndex;
+        }
+    }
+
+    private static final class CachedBitmap {
+        final CardBitmap bitmap;
+        volatile long lastUsed;
+
+        CachedBitmap(CardBitmap bitmap, long lastUsed) {
+            this.bitmap = bitmap;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Columnar, primitive-backed card catalog.
+// Fees and rates live in double[] columns and the few distinct bank names are
+// dictionary-encoded into an int[]. Card names and rewards texts are nearly all distinct, so
+// they are stored as they are.
+// A store loaded from a CatalogSnapshot reads every column from the snapshot's mapping instead,
+// and copies the columns into the arrays on its first change.
+// Hot paths read the columns by row id; the List<CreditCard> view only creates a CreditCard
+// when an element is actually requested.
+public class CardStore extends AbstractList<CreditCard> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Notified of row changes so that indexes over the store can update in place
+    public interface Listener {
+        // Called after a card has been appended at the given row
+        void cardAdded(int row);
+
+        // Called while the row still holds the card that is about to be removed
+        void cardRemoving(int row);
+
+        // Called after the card that was at row "from" has been moved to row "to"
+        void cardMoved(int from, int to);
+    }
+
+    private double[] annualFees;
+    private double[] interestRates;
+    private int[] bankIds;
+    private String[] names;
+    private String[] rewards;
+    private int size;
+
+    // Column source while the store is unchanged since it was loaded from a snapshot; the
+    // arrays above are unused until then
+    private CatalogSnapshot snapshot;
+
+    // Bank dictionary: id -> name and name -> id
+    private final List<String> bankNames = new ArrayList<>();
+    private final Map<String, Integer> bankIdsByName = new HashMap<>();
+
+    // Source of catalog versions; shared by all stores so a reloaded catalog never reuses a version
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    // Changes whenever the contents change. Volatile because caches on server worker threads
+    // compare it against the version they were built from while the GUI or a loader mutates.
+    private volatile long version = VERSIONS.incrementAndGet();
+
+    private final List<Listener> listeners = new ArrayList<>();
+
+    public CardStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public CardStore(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        annualFees = new double[capacity];
+        interestRates = new double[capacity];
+        bankIds = new int[capacity];
+        names = new String[capacity];
+        rewards = new String[capacity];
+    }
+
+    // Build a store from existing card objects
+    public static CardStore fromCards(List<CreditCard> cards) {
+        CardStore store = new CardStore(cards.size());
+        for (CreditCard card : cards) {
+            store.add(card.getName(), card.getBankName(), card.getAnnualFee(), card.getInterestRate(), card.getRewards());
+        }
+        return store;
+    }
+
+    // A store over a mapped snapshot. Only the bank dictionary is decoded here; every other
+    // value is read from the mapping when asked for. The snapshot can be closed afterwards,
+    // since its mapping outlives the file channel.
+    public static CardStore fromSnapshot(CatalogSnapshot snapshot) {
+        CardStore store = new CardStore(1);
+        for (int id = 0; id < snapshot.getBankCount(); id++) {
+            String bankName = snapshot.getBankNameById(id);
+            store.bankNames.add(bankName);
+            store.bankIdsByName.putIfAbsent(bankName, id);
+        }
+        store.snapshot = snapshot;
+        store.size = snapshot.size();
+        return store;
+    }
+
+    // Use the list as-is when it already is a store, otherwise copy it into one
+    public static CardStore of(List<CreditCard> cards) {
+        return cards instanceof CardStore ? (CardStore) cards : fromCards(cards);
+    }
+
+    // Append a card and return its row id
+    public int add(String name, String bankName, double annualFee, double interestRate, String rewardsText) {
+        materialize();
+        ensureCapacity(size + 1);
+        int row = size;
+        names[row] = name;
+        bankIds[row] = bankId(bankName);
+        annualFees[row] = annualFee;
+        interestRates[row] = interestRate;
+        rewards[row] = rewardsText;
+        size++;
+        modCount++;
+        version = VERSIONS.incrementAndGet();
+        for (Listener listener : listeners) {
+            listener.cardAdded(row);
+        }
+        return row;
+    }
+
+    // Remove a card. The last card moves into the freed row so the columns stay dense;
+    // listeners are told about both the removal and the move.
+    public void removeRow(int row) {
+        checkRow(row);
+        materialize();
+        for (Listener listener : listeners) {
+            listener.cardRemoving(row);
+        }
+        int last = size - 1;
+        if (row != last) {
+            names[row] = names[last];
+            bankIds[row] = bankIds[last];
+            annualFees[row] = annualFees[last];
+            interestRates[row] = interestRates[last];
+            rewards[row] = rewards[last];
+        }
+        names[last] = null;
+        rewards[last] = null;
+        size--;
+        version = VERSIONS.incrementAndGet();
+        modCount++;
+        if (row != last) {
+            for (Listener listener : listeners) {
+                listener.cardMoved(last, row);
+            }
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Read-only CreditCard view of one row
+    @Override
+    public CreditCard get(int row) {
+        return new CreditCard(getName(row), getBankName(row), getAnnualFee(row), getInterestRate(row), getRewards(row));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Catalog version: unique across stores and changed by every add or remove
+    public long getVersion() {
+        return version;
+    }
+
+    // Column accessors
+
+    public String getName(int row) {
+        checkRow(row);
+        return snapshot != null ? snapshot.getName(row) : names[row];
+    }
+
+    public int getBankId(int row) {
+        checkRow(row);
+        return snapshot != null ? snapshot.getBankId(row) : bankIds[row];
+    }
+
+    public String getBankName(int row) {
+        return bankNames.get(getBankId(row));
+    }
+
+    public double getAnnualFee(int row) {
+        checkRow(row);
+        return snapshot != null ? snapshot.getAnnualFee(row) : annualFees[row];
+    }
+
+    public double getInterestRate(int row) {
+        checkRow(row);
+        return snapshot != null ? snapshot.getInterestRate(row) : interestRates[row];
+    }
+
+    public String getRewards(int row) {
+        checkRow(row);
+        return snapshot != null ? snapshot.getRewards(row) : rewards[row];
+    }
+
+    // Case-insensitive substring test on the rewards column without copying the text.
+    // The keyword is expected to be lower case already.
+    public boolean rewardsContain(int row, String lowerCaseKeyword) {
+        checkRow(row);
+        if (snapshot != null) {
+            return snapshot.rewardsContain(row, lowerCaseKeyword);
+        }
+        return containsIgnoreCase(rewards[row], lowerCaseKeyword);
+    }
+
+    // The case-insensitive substring test of rewardsContain, for any text
+    static boolean containsIgnoreCase(String text, String lowerCaseKeyword) {
+        if (lowerCaseKeyword.isEmpty()) {
+            return true;
+        }
+        if (text == null) {
+            return false;
+        }
+        int last = text.length() - lowerCaseKeyword.length();
+        char first = lowerCaseKeyword.charAt(0);
+        char firstUpper = Character.toUpperCase(first);
+        // With an ASCII first character, ASCII text characters can be rejected with two compares;
+        // anything else goes through the full case-insensitive comparison
+        boolean asciiFirst = first < 0x80;
+        for (int i = 0; i <= last; i++) {
+            char c = text.charAt(i);
+            if (asciiFirst && c < 0x80 && c != first && c != firstUpper) {
+                continue;
+            }
+            if (text.regionMatches(true, i, lowerCaseKeyword, 0, lowerCaseKeyword.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Bank dictionary accessors
+
+    public int getBankCount() {
+        return bankNames.size();
+    }
+
+    public String getBankNameById(int bankId) {
+        return bankNames.get(bankId);
+    }
+
+    // Returns -1 when no card of that bank is stored
+    public int findBankId(String bankName) {
+        Integer id = bankIdsByName.get(bankName);
+        return id == null ? -1 : id;
+    }
+
+    private int bankId(String bankName) {
+        Integer id = bankIdsByName.get(bankName);
+        if (id == null) {
+            id = bankNames.size();
+            bankNames.add(bankName);
+            bankIdsByName.put(bankName, id);
+        }
+        return id;
+    }
+
+    // Copy the snapshot's columns into the arrays before the first change
+    private void materialize() {
+        if (snapshot == null) {
+            return;
+        }
+        CatalogSnapshot source = snapshot;
+        int capacity = Math.max(size + (size >> 1), INITIAL_CAPACITY);
+        annualFees = new double[capacity];
+        interestRates = new double[capacity];
+        bankIds = new int[capacity];
+        names = new String[capacity];
+        rewards = new String[capacity];
+        for (int row = 0; row < size; row++) {
+            annualFees[row] = source.getAnnualFee(row);
+            interestRates[row] = source.getInterestRate(row);
+            bankIds[row] = source.getBankId(row);
+            names[row] = source.getName(row);
+            rewards[row] = source.getRewards(row);
+        }
+        snapshot = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= names.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, names.length + (names.length >> 1));
+        annualFees = Arrays.copyOf(annualFees, newCapacity);
+        interestRates = Arrays.copyOf(interestRates, newCapacity);
+        bankIds = Arrays.copyOf(bankIds, newCapacity);
+        names = Arrays.copyOf(names, newCapacity);
+        rewards = Arrays.copyOf(rewards, newCapacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package org.example;
+
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+// Table model that views rows of a CardStore directly instead of copying every card into
+// Vectors. Cells are read from the store's columns only when the table paints them, so a result
+// of any size is shown with one int per row.
+//
+// Sorting uses a per-column row order computed once per catalog version: the full catalog is
+// shown in that order as is, and a result set is sorted by each row's position in it
+// (a primitive sort, or a linear pass over the order for large results). Column orders are
+// computed on a worker thread; the rows stay as they are until the order is ready.
+public class CardTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int NAME = 0;
+    public static final int BANK = 1;
+    public static final int ANNUAL_FEE = 2;
+    public static final int INTEREST_RATE = 3;
+    public static final int REWARDS = 4;
+
+    private static final String[] COLUMN_NAMES = {"Card Name", "Bank Name", "Annual Fee", "Interest Rate", "Rewards"};
+
+    private final CardStore store;
+
+    // Catalog rows in display order; null means every row of the store in catalog order
+    private int[] rows = new int[0];
+    private int[] viewRows; // rows after sorting; same as rows when unsorted
+    private int[] fullOrder; // column order shown when rows is null and a sort is applied
+    private int sortColumn = -1;
+    private boolean descending;
+
+    // Per column: catalog rows in sorted order, and each row's position in that order
+    private final int[][] orders = new int[COLUMN_NAMES.length][];
+    private final int[][] ranks = new int[COLUMN_NAMES.length][];
+    private long ordersVersion = -1;
+    private final boolean[] computing = new boolean[COLUMN_NAMES.length];
+
+    public CardTableModel(CardStore store) {
+        this.store = store;
+    }
+
+    // Show these catalog rows (kept in the given order until a column is sorted)
+    public void setRows(int[] rows) {
+        this.rows = rows;
+        resort();
+    }
+
+    // Show rows whose given order matters (such as a ranking); any column sort is dropped
+    public void setRankedRows(int[] rows) {
+        sortColumn = -1;
+        descending = false;
+        setRows(rows);
+    }
+
+    // Show the whole catalog
+    public void showAll() {
+        setRows(null);
+    }
+
+    public void clear() {
+        setRows(new int[0]);
+    }
+
+    // Catalog row shown at a table row
+    public int getCatalogRow(int viewRow) {
+        if (viewRows == null) {
+            if (fullOrder == null) {
+                return viewRow;
+            }
+            return fullOrder[descending ? fullOrder.length - 1 - viewRow : viewRow];
+        }
+        return viewRows[viewRow];
+    }
+
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    // Sort by a column; sorting again by the same column flips the direction
+    public void toggleSort(int column) {
+        if (column == sortColumn) {
+            descending = !descending;
+        } else {
+            sortColumn = column;
+            descending = false;
+        }
+        resort();
+    }
+
+    public void clearSort() {
+        sortColumn = -1;
+        descending = false;
+        resort();
+    }
+
+    @Override
+    public int getRowCount() {
+        return viewRows == null ? store.size() : viewRows.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Object getValueAt(int viewRow, int column) {
+        return getCellValue(getCatalogRow(viewRow), column);
+    }
+
+    private Object getCellValue(int row, int column) {
+        switch (column) {
+            case NAME:
+                return store.getName(row);
+            case BANK:
+                return store.getBankName(row);
+            case ANNUAL_FEE:
+                return store.getAnnualFee(row);
+            case INTEREST_RATE:
+                return store.getInterestRate(row);
+            case REWARDS:
+                return store.getRewards(row);
+            default:
+                throw new IndexOutOfBoundsException("No column " + column);
+        }
+    }
+
+    private void resort() {
+        fullOrder = null;
+        if (sortColumn < 0) {
+            viewRows = rows;
+        } else if (!hasOrder(sortColumn)) {
+            // Shown unsorted until the worker delivers the order and calls resort again
+            computeOrder(sortColumn);
+            viewRows = rows;
+        } else if (rows == null) {
+            fullOrder = orders[sortColumn];
+            viewRows = null; // getCatalogRow reads the column order directly
+        } else {
+            viewRows = sortRows(rows, sortColumn, descending);
+        }
+        fireTableDataChanged();
+    }
+
+    private int[] sortRows(int[] rows, int column, boolean descending) {
+        int[] order = orders[column];
+        int[] sorted = new int[rows.length];
+
+        if (rows.length >= order.length / 16) {
+            // Large result: one pass over the column order picks out the members in order
+            boolean[] member = new boolean[order.length];
+            for (int row : rows) {
+                member[row] = true;
+            }
+            int count = 0;
+            for (int row : order) {
+                if (member[row]) {
+                    sorted[count++] = row;
+                }
+            }
+        } else {
+            // Small result: sort (position, row) pairs packed into longs
+            int[] rank = ranks[column];
+            long[] keys = new long[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                keys[i] = ((long) rank[rows[i]] << 32) | rows[i];
+            }
+            Arrays.sort(keys);
+            for (int i = 0; i < keys.length; i++) {
+                sorted[i] = (int) keys[i];
+            }
+        }
+
+        if (descending) {
+            for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+                int row = sorted[i];
+                sorted[i] = sorted[j];
+                sorted[j] = row;
+            }
+        }
+        return sorted;
+    }
+
+    private boolean hasOrder(int column) {
+        if (ordersVersion != store.getVersion()) {
+            Arrays.fill(orders, null);
+            Arrays.fill(ranks, null);
+            ordersVersion = store.getVersion();
+        }
+        return orders[column] != null;
+    }
+
+    // Sorts the column on a worker thread and installs the order on the EDT, unless the
+    // catalog changed in the meantime
+    private void computeOrder(int column) {
+        if (computing[column]) {
+            return;
+        }
+        computing[column] = true;
+        long version = store.getVersion();
+        new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() {
+                return columnOrder(column);
+            }
+
+            @Override
+            protected void done() {
+                computing[column] = false;
+                try {
+                    int[] order = get();
+                    if (version == store.getVersion() && !hasOrder(column)) {
+                        int[] rank = new int[order.length];
+                        for (int i = 0; i < order.length; i++) {
+                            rank[order[i]] = i;
+                        }
+                        orders[column] = order;
+                        ranks[column] = rank;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    // The catalog changed under the sort; the next resort starts a new one
+                }
+                if (column == sortColumn) {
+                    resort();
+                }
+            }
+        }.execute();
+    }
+
+    private int[] columnOrder(int column) {
+        switch (column) {
+            case ANNUAL_FEE:
+                return numericOrder(RangeIndex.build(store, RangeIndex.ANNUAL_FEE));
+            case INTEREST_RATE:
+                return numericOrder(RangeIndex.build(store, RangeIndex.INTEREST_RATE));
+            case BANK:
+                return bankOrder();
+            default:
+                return stringOrder(column);
+        }
+    }
+
+    // N/A rows sort after every known value, in catalog order
+    private static int[] numericOrder(RangeIndex index) {
+        int known = index.knownCount();
+        int[] order = new int[known + index.unknownCount()];
+        for (int i = 0; i < known; i++) {
+            order[i] = index.sortedRow(i);
+        }
+        for (int i = 0; i < index.unknownCount(); i++) {
+            order[known + i] = index.unknownRow(i);
+        }
+        return order;
+    }
+
+    // Bank names come from the store's dictionary: only the distinct names are compared, and
+    // the rows are placed by a counting sort on bank id that keeps catalog order within a bank
+    private int[] bankOrder() {
+        int size = store.size();
+        int bankCount = store.getBankCount();
+        String[] names = new String[bankCount];
+        for (int id = 0; id < bankCount; id++) {
+            names[id] = nonNull(store.getBankNameById(id));
+        }
+        int[] byName = new int[bankCount];
+        for (int i = 0; i < bankCount; i++) {
+            byName[i] = i;
+        }
+        mergeSort(byName, new int[bankCount], 0, bankCount, names);
+        int[] bankRank = new int[bankCount];
+        for (int i = 0; i < bankCount; i++) {
+            bankRank[byName[i]] = i;
+        }
+
+        int[] starts = new int[bankCount + 1];
+        for (int row = 0; row < size; row++) {
+            starts[bankRank[store.getBankId(row)] + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        int[] order = new int[size];
+        for (int row = 0; row < size; row++) {
+            order[starts[bankRank[store.getBankId(row)]]++] = row;
+        }
+        return order;
+    }
+
+    // Names and offers are nearly all distinct, so the row ids are sorted directly by their text
+    private int[] stringOrder(int column) {
+        int size = store.size();
+        String[] values = new String[size];
+        int[] order = new int[size];
+        for (int row = 0; row < size; row++) {
+            values[row] = nonNull((String) getCellValue(row, column));
+            order[row] = row;
+        }
+        mergeSort(order, new int[size], 0, size, values);
+        return order;
+    }
+
+    // Stable sort of ids by their values (case-insensitive, then exact), so equal values keep
+    // catalog order
+    private static void mergeSort(int[] ids, int[] buffer, int from, int to, String[] values) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int id = ids[i];
+                int j = i - 1;
+                while (j >= from && compare(values[ids[j]], values[id]) > 0) {
+                    ids[j + 1] = ids[j];
+                    j--;
+                }
+                ids[j + 1] = id;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(ids, buffer, from, middle, values);
+        mergeSort(ids, buffer, middle, to, values);
+        if (compare(values[ids[middle - 1]], values[ids[middle]]) <= 0) {
+            return; // already in order
+        }
+        System.arraycopy(ids, from, buffer, from, to - from);
+        int i = from;
+        int j = middle;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < middle && compare(values[buffer[i]], values[buffer[j]]) <= 0)) {
+                ids[k] = buffer[i++];
+            } else {
+                ids[k] = buffer[j++];
+            }
+        }
+    }
+
+    private static int compare(String a, String b) {
+        int result = String.CASE_INSENSITIVE_ORDER.compare(a, b);
+        return result != 0 ? result : a.compareTo(b);
+    }
+
+    private static String nonNull(String value) {
+        return value == null ? "" : value;
+    }
+}
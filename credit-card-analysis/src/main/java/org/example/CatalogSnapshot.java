@@ -0,0 +1,413 @@
+package org.example;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binary snapshot of the card catalog, read through a memory mapping.
+// A CardStore loaded from it reads its columns from the mapping: numbers are read in place
+// and a string is decoded only when it is asked for, so loading copies nothing but the few
+// distinct bank names. The mapping stays valid after close(); it is released when the last
+// store using it is collected.
+//
+// Layout (big-endian):
+//   header      magic, format version, source CSV size and modification time, row count,
+//               bank count, and the byte length of each string heap
+//   fee column  rowCount doubles
+//   rate column rowCount doubles
+//   bank column rowCount ints, ids into the bank dictionary
+//   bank dictionary, then the name and rewards columns: an int[entries + 1] offset table
+//               followed by the UTF-8 bytes of every value
+// Offsets and bank ids are checked when the snapshot is opened.
+//
+// The CSV stays the source of truth: the snapshot records the size and modification time of
+// the file it was built from and is rebuilt when either changes, without reading the CSV.
+// SpellIndex uses the same rule, so touching or editing the CSV drops both caches.
+public class CatalogSnapshot implements Closeable {
+
+    public static final String SUFFIX = ".snapshot";
+
+    private static final int MAGIC = 0x4343534E; // "CCSN"
+    // Version 4: dictionary-encoded bank column, freshness by modification time
+    private static final int FORMAT_VERSION = 4;
+    private static final int HEADER_SIZE = 64;
+
+    private static final int BANK = 0;
+    private static final int NAME = 1;
+    private static final int REWARDS = 2;
+    private static final int STRING_COLUMNS = 3;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final int bankCount;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final int feeOffset;
+    private final int rateOffset;
+    private final int bankIdOffset;
+    private final int[] offsetTables = new int[STRING_COLUMNS];
+    private final int[] heaps = new int[STRING_COLUMNS];
+
+    private CatalogSnapshot(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version " + buffer.getInt(4));
+        }
+        sourceSize = buffer.getLong(8);
+        sourceModified = buffer.getLong(16);
+        rowCount = buffer.getInt(24);
+        bankCount = buffer.getInt(28);
+        if (rowCount < 0 || bankCount < 0) {
+            throw new IOException("Truncated or corrupt catalog snapshot");
+        }
+
+        long position = HEADER_SIZE;
+        feeOffset = (int) position;
+        position += 8L * rowCount;
+        rateOffset = (int) position;
+        position += 8L * rowCount;
+        bankIdOffset = (int) position;
+        position += 4L * rowCount;
+        int[] heapLengths = new int[STRING_COLUMNS];
+        for (int column = 0; column < STRING_COLUMNS; column++) {
+            heapLengths[column] = buffer.getInt(32 + 4 * column);
+            offsetTables[column] = (int) position;
+            position += 4L * (entries(column) + 1);
+            heaps[column] = (int) position;
+            position += heapLengths[column];
+            if (heapLengths[column] < 0 || position > buffer.capacity()) {
+                throw new IOException("Truncated or corrupt catalog snapshot");
+            }
+        }
+        if (position != buffer.capacity()) {
+            throw new IOException("Truncated or corrupt catalog snapshot");
+        }
+
+        // Values are read without further checks, so every offset and id must be in range
+        for (int column = 0; column < STRING_COLUMNS; column++) {
+            int table = offsetTables[column];
+            int previous = 0;
+            for (int i = 0; i <= entries(column); i++) {
+                int offset = buffer.getInt(table + 4 * i);
+                if ((i == 0 && offset != 0) || offset < previous || offset > heapLengths[column]) {
+                    throw new IOException("Truncated or corrupt catalog snapshot");
+                }
+                previous = offset;
+            }
+            if (previous != heapLengths[column]) {
+                throw new IOException("Truncated or corrupt catalog snapshot");
+            }
+        }
+        for (int row = 0; row < rowCount; row++) {
+            int bankId = buffer.getInt(bankIdOffset + 4 * row);
+            if (bankId < 0 || bankId >= bankCount) {
+                throw new IOException("Truncated or corrupt catalog snapshot");
+            }
+        }
+    }
+
+    // Load the catalog, preferring a fresh snapshot and rebuilding it from the CSV otherwise.
+    // A store loaded from the snapshot reads from its mapping until the first change.
+    public static CardStore loadStore(String csvFile) throws IOException {
+        Path csvPath = Paths.get(csvFile);
+        Path snapshotPath = snapshotPathFor(csvPath);
+        long sourceSize = Files.size(csvPath);
+        long sourceModified = lastModified(csvPath);
+
+        if (isFresh(snapshotPath, sourceSize, sourceModified)) {
+            try (CatalogSnapshot snapshot = open(snapshotPath)) {
+                return CardStore.fromSnapshot(snapshot);
+            } catch (IOException e) {
+                System.out.println("Ignoring unreadable snapshot " + snapshotPath + ": " + e.getMessage());
+            }
+        }
+
+        CardStore store = CardCsvLoader.loadStore(csvFile);
+        try {
+            write(snapshotPath, store, sourceSize, sourceModified);
+        } catch (IOException e) {
+            // The snapshot is only a startup cache; the CSV load already succeeded
+            System.out.println("Could not write catalog snapshot " + snapshotPath + ": " + e.getMessage());
+        }
+        return store;
+    }
+
+    public static Path snapshotPathFor(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + SUFFIX);
+    }
+
+    // Modification time in milliseconds; with the size, the freshness check of every cache
+    // derived from the catalog
+    public static long lastModified(Path path) throws IOException {
+        return Files.getLastModifiedTime(path).toMillis();
+    }
+
+    // True when the snapshot exists and was built from the CSV at its current size and time
+    public static boolean isFresh(Path csvPath, Path snapshotPath) throws IOException {
+        if (!Files.isRegularFile(csvPath)) {
+            return false;
+        }
+        return isFresh(snapshotPath, Files.size(csvPath), lastModified(csvPath));
+    }
+
+    private static boolean isFresh(Path snapshotPath, long sourceSize, long sourceModified) throws IOException {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), HEADER_SIZE))) {
+            return in.readInt() == MAGIC
+                    && in.readInt() == FORMAT_VERSION
+                    && in.readLong() == sourceSize
+                    && in.readLong() == sourceModified;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    // Map an existing snapshot file read-only
+    public static CatalogSnapshot open(Path snapshotPath) throws IOException {
+        FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB cannot be mapped in one region");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new CatalogSnapshot(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Write a snapshot for the given cards, tagged with the size and modification time of the CSV
+    public static void write(Path snapshotPath, List<CreditCard> cards, Path csvPath) throws IOException {
+        write(snapshotPath, cards, Files.size(csvPath), lastModified(csvPath));
+    }
+
+    public static void write(Path snapshotPath, List<CreditCard> cards, long sourceSize, long sourceModified) throws IOException {
+        int rowCount = cards.size();
+        Map<String, Integer> bankIds = new LinkedHashMap<>();
+        int[] rowBankIds = new int[rowCount];
+        byte[][][] encoded = new byte[STRING_COLUMNS][][];
+        encoded[NAME] = new byte[rowCount][];
+        encoded[REWARDS] = new byte[rowCount][];
+        for (int row = 0; row < rowCount; row++) {
+            CreditCard card = cards.get(row);
+            // Absent values are stored as empty strings
+            String bankName = card.getBankName() == null ? "" : card.getBankName();
+            Integer bankId = bankIds.putIfAbsent(bankName, bankIds.size());
+            rowBankIds[row] = bankId == null ? bankIds.size() - 1 : bankId;
+            encoded[NAME][row] = utf8(card.getName());
+            encoded[REWARDS][row] = utf8(card.getRewards());
+        }
+        List<byte[]> banks = new ArrayList<>();
+        for (String bankName : bankIds.keySet()) {
+            banks.add(utf8(bankName));
+        }
+        encoded[BANK] = banks.toArray(new byte[0][]);
+
+        long[] heapLengths = new long[STRING_COLUMNS];
+        long total = HEADER_SIZE + 20L * rowCount;
+        for (int column = 0; column < STRING_COLUMNS; column++) {
+            for (byte[] value : encoded[column]) {
+                heapLengths[column] += value.length;
+            }
+            total += 4L * (encoded[column].length + 1) + heapLengths[column];
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Catalog too large for a single snapshot region");
+        }
+
+        Path tempPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+            out.writeInt(rowCount);
+            out.writeInt(encoded[BANK].length);
+            for (int column = 0; column < STRING_COLUMNS; column++) {
+                out.writeInt((int) heapLengths[column]);
+            }
+            out.write(new byte[HEADER_SIZE - 44]); // Reserved
+
+            for (CreditCard card : cards) {
+                out.writeDouble(card.getAnnualFee());
+            }
+            for (CreditCard card : cards) {
+                out.writeDouble(card.getInterestRate());
+            }
+            for (int bankId : rowBankIds) {
+                out.writeInt(bankId);
+            }
+            for (int column = 0; column < STRING_COLUMNS; column++) {
+                int offset = 0;
+                for (byte[] value : encoded[column]) {
+                    out.writeInt(offset);
+                    offset += value.length;
+                }
+                out.writeInt(offset);
+                for (byte[] value : encoded[column]) {
+                    out.write(value);
+                }
+            }
+        }
+        try {
+            Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public long getSourceSize() {
+        return sourceSize;
+    }
+
+    public long getSourceModified() {
+        return sourceModified;
+    }
+
+    // Column accessors read from the mapping; strings are decoded on every call
+
+    public double getAnnualFee(int row) {
+        checkRow(row);
+        return buffer.getDouble(feeOffset + 8 * row);
+    }
+
+    public double getInterestRate(int row) {
+        checkRow(row);
+        return buffer.getDouble(rateOffset + 8 * row);
+    }
+
+    public int getBankId(int row) {
+        checkRow(row);
+        return buffer.getInt(bankIdOffset + 4 * row);
+    }
+
+    public int getBankCount() {
+        return bankCount;
+    }
+
+    public String getBankNameById(int bankId) {
+        if (bankId < 0 || bankId >= bankCount) {
+            throw new IndexOutOfBoundsException("Bank " + bankId + " of " + bankCount);
+        }
+        return readString(BANK, bankId);
+    }
+
+    public String getName(int row) {
+        checkRow(row);
+        return readString(NAME, row);
+    }
+
+    public String getBankName(int row) {
+        return readString(BANK, getBankId(row));
+    }
+
+    public String getRewards(int row) {
+        checkRow(row);
+        return readString(REWARDS, row);
+    }
+
+    // CardStore.rewardsContain on the mapped bytes. An ASCII keyword is matched against the
+    // bytes directly; a row that holds no match among its ASCII bytes but has other characters
+    // is decoded, since those can fold to ASCII letters.
+    public boolean rewardsContain(int row, String lowerCaseKeyword) {
+        checkRow(row);
+        int length = lowerCaseKeyword.length();
+        for (int i = 0; i < length; i++) {
+            if (lowerCaseKeyword.charAt(i) >= 0x80) {
+                return CardStore.containsIgnoreCase(getRewards(row), lowerCaseKeyword);
+            }
+        }
+        int table = offsetTables[REWARDS];
+        int start = heaps[REWARDS] + buffer.getInt(table + 4 * row);
+        int end = heaps[REWARDS] + buffer.getInt(table + 4 * (row + 1));
+        boolean asciiOnly = true;
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                asciiOnly = false;
+            } else if (i + length <= end && matchesAscii(i, lowerCaseKeyword)) {
+                return true;
+            }
+        }
+        return length == 0 || (!asciiOnly && CardStore.containsIgnoreCase(getRewards(row), lowerCaseKeyword));
+    }
+
+    public CreditCard getCard(int row) {
+        return new CreditCard(getName(row), getBankName(row), getAnnualFee(row), getInterestRate(row), getRewards(row));
+    }
+
+    // Materialize every row as a CreditCard
+    public List<CreditCard> toCards() {
+        List<CreditCard> cards = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            cards.add(getCard(row));
+        }
+        return cards;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Rows of the name and rewards columns, entries of the bank dictionary
+    private int entries(int column) {
+        return column == BANK ? bankCount : rowCount;
+    }
+
+    private String readString(int column, int index) {
+        int table = offsetTables[column];
+        int start = buffer.getInt(table + 4 * index);
+        int end = buffer.getInt(table + 4 * (index + 1));
+        byte[] bytes = new byte[end - start];
+        buffer.get(heaps[column] + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Whether the ASCII keyword matches, ignoring case, the bytes starting at position
+    private boolean matchesAscii(int position, String lowerCaseKeyword) {
+        for (int k = 0; k < lowerCaseKeyword.length(); k++) {
+            int b = buffer.get(position + k);
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            int c = lowerCaseKeyword.charAt(k);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (b != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,230 @@
+package org.example;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Prefix trie for frequency-ranked word completion.
+// Every node records the highest word frequency anywhere in its subtree, so the K most frequent
+// completions of a prefix come out of a best-first walk that only opens nodes able to beat the
+// results found so far: the cost depends on the prefix length and K, not on the vocabulary size.
+// Nodes are rows in parallel primitive arrays (one char, links and counts per node) rather than
+// one object per node.
+public class CompletionTrie {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private char[] label = new char[64];
+    private int[] parent = new int[64];
+    private int[] firstChild = new int[64];
+    private int[] nextSibling = new int[64];
+    private int[] frequency = new int[64];     // 0 when no word ends here
+    private int[] maxInSubtree = new int[64];  // Highest frequency at this node or below
+    private int nodeCount;
+    private int wordCount;
+
+    public CompletionTrie() {
+        newNode('\0', NONE);
+    }
+
+    public static CompletionTrie fromTerms(TermDictionary terms) {
+        CompletionTrie trie = new CompletionTrie();
+        for (int id = 0; id < terms.size(); id++) {
+            trie.setFrequency(terms.getTerm(id), terms.getCount(id));
+        }
+        return trie;
+    }
+
+    // Add to a word's frequency, inserting the word if needed
+    public void add(String word, int delta) {
+        int node = findOrInsert(word);
+        setNodeFrequency(node, Math.max(0, frequency[node] + delta));
+    }
+
+    // Set a word's frequency; 0 removes it from the completions
+    public void setFrequency(String word, int newFrequency) {
+        if (newFrequency < 0) {
+            throw new IllegalArgumentException("Negative frequency for " + word);
+        }
+        int node = newFrequency == 0 ? find(word) : findOrInsert(word);
+        if (node != NONE) {
+            setNodeFrequency(node, newFrequency);
+        }
+    }
+
+    public int getFrequency(String word) {
+        int node = find(word);
+        return node == NONE ? 0 : frequency[node];
+    }
+
+    public boolean contains(String word) {
+        return getFrequency(word) > 0;
+    }
+
+    // Number of words with a positive frequency
+    public int size() {
+        return wordCount;
+    }
+
+    // Up to k words starting with the prefix, most frequent first; equal frequencies come out in
+    // insertion order of their nodes
+    public List<String> topCompletions(String prefix, int k) {
+        List<String> result = new ArrayList<>(Math.min(k, 16));
+        int start = find(prefix);
+        if (start == NONE || k <= 0 || maxInSubtree[start] == 0) {
+            return result;
+        }
+
+        // Entries are {priority, node, isWord}: a subtree is pushed with its best frequency and a
+        // word with its own. A word pops before any subtree of equal priority.
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> {
+            if (a[0] != b[0]) {
+                return Long.compare(b[0], a[0]);
+            }
+            if (a[2] != b[2]) {
+                return Long.compare(b[2], a[2]);
+            }
+            return Long.compare(a[1], b[1]);
+        });
+        queue.add(new long[]{maxInSubtree[start], start, 0});
+        while (!queue.isEmpty() && result.size() < k) {
+            long[] entry = queue.poll();
+            int node = (int) entry[1];
+            if (entry[2] == 1) {
+                result.add(wordAt(node));
+                continue;
+            }
+            if (frequency[node] > 0) {
+                queue.add(new long[]{frequency[node], node, 1});
+            }
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (maxInSubtree[child] > 0) {
+                    queue.add(new long[]{maxInSubtree[child], child, 0});
+                }
+            }
+        }
+        return result;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    // Write every node field as one array after another (labels, parents, first children, next
+    // siblings, frequencies, subtree maximums), so reading needs no inserts or maximum updates
+    void write(DataOutput out) throws IOException {
+        for (int node = 0; node < nodeCount; node++) {
+            out.writeChar(label[node]);
+        }
+        for (int[] column : new int[][]{parent, firstChild, nextSibling, frequency, maxInSubtree}) {
+            for (int node = 0; node < nodeCount; node++) {
+                out.writeInt(column[node]);
+            }
+        }
+    }
+
+    // Rebuild a trie from the arrays written by write; the arrays are used as they are
+    static CompletionTrie fromNodes(char[] label, int[] parent, int[] firstChild, int[] nextSibling,
+                                    int[] frequency, int[] maxInSubtree, int wordCount) {
+        CompletionTrie trie = new CompletionTrie();
+        trie.label = label;
+        trie.parent = parent;
+        trie.firstChild = firstChild;
+        trie.nextSibling = nextSibling;
+        trie.frequency = frequency;
+        trie.maxInSubtree = maxInSubtree;
+        trie.nodeCount = label.length;
+        trie.wordCount = wordCount;
+        return trie;
+    }
+
+    private void setNodeFrequency(int node, int newFrequency) {
+        int old = frequency[node];
+        if (old == newFrequency) {
+            return;
+        }
+        if (old == 0) {
+            wordCount++;
+        } else if (newFrequency == 0) {
+            wordCount--;
+        }
+        frequency[node] = newFrequency;
+
+        // Walk towards the root while the subtree maximum changes
+        for (int n = node; n != NONE; n = parent[n]) {
+            int max = frequency[n];
+            for (int child = firstChild[n]; child != NONE; child = nextSibling[child]) {
+                max = Math.max(max, maxInSubtree[child]);
+            }
+            if (max == maxInSubtree[n]) {
+                break;
+            }
+            maxInSubtree[n] = max;
+        }
+    }
+
+    private int find(String word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length() && node != NONE; i++) {
+            node = child(node, word.charAt(i));
+        }
+        return node;
+    }
+
+    private int findOrInsert(String word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            int next = child(node, c);
+            if (next == NONE) {
+                next = newNode(c, node);
+                nextSibling[next] = firstChild[node];
+                firstChild[node] = next;
+            }
+            node = next;
+        }
+        return node;
+    }
+
+    private int child(int node, char c) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (label[child] == c) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private String wordAt(int node) {
+        int length = 0;
+        for (int n = node; n != ROOT; n = parent[n]) {
+            length++;
+        }
+        char[] chars = new char[length];
+        for (int n = node; n != ROOT; n = parent[n]) {
+            chars[--length] = label[n];
+        }
+        return new String(chars);
+    }
+
+    private int newNode(char c, int parentNode) {
+        if (nodeCount == label.length) {
+            int capacity = nodeCount * 2;
+            label = Arrays.copyOf(label, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            frequency = Arrays.copyOf(frequency, capacity);
+            maxInSubtree = Arrays.copyOf(maxInSubtree, capacity);
+        }
+        label[nodeCount] = c;
+        parent[nodeCount] = parentNode;
+        firstChild[nodeCount] = NONE;
+        nextSibling[nodeCount] = NONE;
+        return nodeCount++;
+    }
+}
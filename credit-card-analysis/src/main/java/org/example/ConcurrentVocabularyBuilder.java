@@ -0,0 +1,166 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Vocabulary counts that any number of producer threads can stream text into at once, for
+// crawled pages and other text arriving while the catalog is still loading.
+// Each producer counts its texts in a local dictionary, then adds every distinct word to a
+// striped LongAdder counter, so threads adding the same frequent words do not
+// contend on one count. Each word also keeps the position of its earliest occurrence, so
+// toTerms() returns exactly the words, counts and word order that a sequential
+// VocabularyLoader build over the same texts, in the order addText was called, would have.
+public class ConcurrentVocabularyBuilder {
+
+    // Distinct words a producer collects before merging them into the shared counters
+    public static final int FLUSH_TERMS = 16_384;
+
+    private static final class WordCount {
+        final LongAdder count = new LongAdder();
+        final AtomicLong firstPosition;
+
+        WordCount(long position) {
+            firstPosition = new AtomicLong(position);
+        }
+
+        void seenAt(long position) {
+            long first;
+            while (position < (first = firstPosition.get()) && !firstPosition.compareAndSet(first, position)) {
+                // Another thread lowered it meanwhile; retry against the new value
+            }
+        }
+    }
+
+    // One producer thread's handle. Words are counted in a local dictionary and merged into the
+    // shared counters every FLUSH_TERMS distinct words and on flush() or close(). Not thread-safe.
+    public final class Producer implements AutoCloseable {
+        private final TermDictionary words = new TermDictionary();
+        private long[] firstPositions = new long[64];
+        private long position;
+        private long tokenCount;
+        private final Tokenizer.WordSink sink = this::accept;
+
+        private Producer() {
+        }
+
+        // Texts are ordered by the moment this call starts
+        public void addText(CharSequence text) {
+            if (text == null) {
+                return;
+            }
+            // Each text reserves one position per character, more than it can have words
+            position = positions.getAndAdd(text.length() + 1L);
+            tokenCount += Tokenizer.get().tokenize(text, sink);
+            if (words.size() >= FLUSH_TERMS) {
+                flush();
+            }
+        }
+
+        // The fields VocabularyLoader reads from a card, in the same order
+        public void addCard(CardStore cards, int row) {
+            addText(cards.getName(row));
+            addText(cards.getBankName(row));
+            addText(cards.getRewards(row));
+        }
+
+        private void accept(char[] word, int length) {
+            int size = words.size();
+            int id = words.add(word, 0, length, 1);
+            if (words.size() != size) {
+                if (id == firstPositions.length) {
+                    firstPositions = Arrays.copyOf(firstPositions, id * 2);
+                }
+                firstPositions[id] = position;
+            }
+            position++;
+        }
+
+        public void flush() {
+            for (int id = 0; id < words.size(); id++) {
+                String word = words.getTerm(id);
+                WordCount counter = entries.get(word);
+                if (counter == null) {
+                    WordCount created = new WordCount(firstPositions[id]);
+                    counter = entries.putIfAbsent(word, created);
+                    if (counter == null) {
+                        counter = created;
+                    }
+                }
+                counter.count.add(words.getCount(id));
+                counter.seenAt(firstPositions[id]);
+            }
+            tokens.add(tokenCount);
+            tokenCount = 0;
+            words.clear();
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
+
+    private final ConcurrentHashMap<String, WordCount> entries = new ConcurrentHashMap<>();
+    private final AtomicLong positions = new AtomicLong();
+    private final LongAdder tokens = new LongAdder();
+    // For addText callers without their own producer
+    private final ThreadLocal<Producer> localProducer = ThreadLocal.withInitial(Producer::new);
+
+    // A producer for the calling thread; close it when done so its last words are counted
+    public Producer newProducer() {
+        return new Producer();
+    }
+
+    // Thread-safe; counts one text right away. Producers are faster for many texts.
+    public void addText(CharSequence text) {
+        Producer producer = localProducer.get();
+        producer.addText(text);
+        producer.flush();
+    }
+
+    // Current count of a word; may lag texts still being added
+    public long getCount(String word) {
+        WordCount counter = entries.get(word);
+        return counter == null ? 0 : counter.count.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getTokenCount() {
+        return tokens.sum();
+    }
+
+    // Words in first-seen order with their counts. Exact once every producer is closed; before
+    // that it is a snapshot that misses the words producers have not flushed yet.
+    public TermDictionary toTerms() {
+        String[] words = new String[entries.size()];
+        long[] firstPositions = new long[words.length];
+        long[] counts = new long[words.length];
+        int size = 0;
+        for (Map.Entry<String, WordCount> e : entries.entrySet()) {
+            if (size == words.length) {
+                break;
+            }
+            words[size] = e.getKey();
+            firstPositions[size] = e.getValue().firstPosition.get();
+            counts[size] = e.getValue().count.sum();
+            size++;
+        }
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(firstPositions[a], firstPositions[b]));
+        TermDictionary terms = new TermDictionary();
+        for (int i : order) {
+            terms.add(words[i], Math.toIntExact(counts[i]));
+        }
+        return terms;
+    }
+}
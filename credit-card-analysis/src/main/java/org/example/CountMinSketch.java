@@ -0,0 +1,123 @@
+package org.example;
+
+// Count-min sketch: approximate word counts in fixed memory, whatever the corpus size.
+// Each word is counted in one cell of every row, picked by a per-row hash; the estimate is the
+// smallest of its cells. Collisions only add, so an estimate is never below the true count, and
+// with probability 1 - delta it is at most epsilon * total count above it.
+// The table has ceil(ln(1 / delta)) rows of ceil(e / epsilon) cells, rounded up to a power of two.
+public class CountMinSketch {
+
+    private final double epsilon;
+    private final double delta;
+    private final int depth;
+    private final int width;
+    private final long[] cells;     // depth rows of width cells
+    private long totalCount;
+
+    public CountMinSketch(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Epsilon and delta must be in (0, 1): " + epsilon + ", " + delta);
+        }
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        long minWidth = (long) Math.ceil(Math.E / epsilon);
+        if (minWidth * depth > 1 << 28) {
+            throw new IllegalArgumentException("Sketch for epsilon " + epsilon + " would be too large");
+        }
+        this.width = Integer.highestOneBit((int) minWidth - 1) << 1;
+        this.cells = new long[depth * width];
+    }
+
+    public void add(char[] chars, int offset, int length, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count: " + count);
+        }
+        long hash = hash(chars, offset, length);
+        for (int row = 0; row < depth; row++) {
+            cells[cell(hash, row)] += count;
+        }
+        totalCount += count;
+    }
+
+    public void add(CharSequence word, long count) {
+        char[] chars = toChars(word);
+        add(chars, 0, chars.length, count);
+    }
+
+    // Never below the true count
+    public long estimate(char[] chars, int offset, int length) {
+        long hash = hash(chars, offset, length);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, cells[cell(hash, row)]);
+        }
+        return estimate;
+    }
+
+    public long estimate(CharSequence word) {
+        char[] chars = toChars(word);
+        return estimate(chars, 0, chars.length);
+    }
+
+    // Over-count that an estimate stays within with probability 1 - delta
+    public long getErrorBound() {
+        return (long) Math.ceil(epsilon * totalCount);
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public double getDelta() {
+        return delta;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMemoryBytes() {
+        return 8L * cells.length;
+    }
+
+    private static char[] toChars(CharSequence word) {
+        char[] chars = new char[word.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = word.charAt(i);
+        }
+        return chars;
+    }
+
+    // Each row re-mixes the word hash with its own constant. Deriving the rows as h1 + row * h2
+    // would make a word that collides with another in two rows collide in all of them.
+    private int cell(long hash, int row) {
+        return row * width + ((int) mix(hash + (row + 1) * 0x9E3779B97F4A7C15L) & (width - 1));
+    }
+
+    // 64-bit FNV-1a
+    private static long hash(char[] chars, int offset, int length) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ chars[i]) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    // Final avalanche of MurmurHash3
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
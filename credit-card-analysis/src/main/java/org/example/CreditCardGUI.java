@@ -8,24 +8,60 @@ import java.awt.event.*;
 import java.io.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
 public class CreditCardGUI extends JFrame {
 
+    private static final int RESULT_PAGE_SIZE = 50;
+    private static final int SEARCH_DELAY_MS = 250;
+
     private JTextField annualFeeField;
     private JTextField interestRateField;
     private JTextField rewardsField;
     private JTable resultTable;
+    private CardTableModel resultModel;
     private JTextArea outputArea;
-    private List<CreditCard> cards;
+    private CardStore cards;
+    private RecommendationEngine recommendationEngine;
+    private IncrementalSearch incrementalSearch;
+    private FacetEngine facetEngine;
+    private JTextArea facetArea;
+    private javax.swing.Timer searchDebounce;
+    private JScrollPane resultsPane;
+    private javax.swing.border.TitledBorder resultsBorder;
+    private JCheckBox rankedModeBox;
+    private JButton nextPageButton;
+    private TopKRecommender.Cursor pageCursor;
     private VocabularyLoader vocabularyLoader;
+    private SpellChecker spellChecker; // Shared by every spell check
+    private FrequencyCounter.Mode frequencyMode;
+    private FrequencyCounter frequencyCounter; // Built on first use
     private SearchTracker searchTracker;
     private JComboBox<String> featuresMenu;
     private JButton selectButton;
     private JTabbedPane tabbedPane; // For the tabs
     private JPanel resultTab, featuresTab; // Separate panels for results and additional features
 
+    // Background tasks; starting a new one of a kind cancels the older one still in flight
+    private SwingWorker<?, ?> searchWorker;
+    private SwingWorker<?, ?> pageRankWorker;
+    private SwingWorker<?, ?> validationWorker;
+    private SwingWorker<?, ?> facetWorker;
+    private SwingWorker<?, ?> spellCheckWorker;
+    private SwingWorker<?, ?> frequencyWorker;
+    private SwingWorker<?, ?> activeTask; // The task shown in the status bar
+    private JLabel statusLabel;
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+
+    // Enabled once the startup worker has loaded the catalog
+    private final List<Component> catalogControls = new ArrayList<>();
+
     public CreditCardGUI() {
         setTitle("Credit Card Finder");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -33,20 +69,9 @@ public class CreditCardGUI extends JFrame {
         setLayout(new BorderLayout(10, 10));
 
         // Initialize helper classes
-        vocabularyLoader = new VocabularyLoader();
         searchTracker = new SearchTracker();
 
-        // Load cards from the CSV file
-        String csvFile = "combined_credit_cards.csv";
-        cards = loadCards(csvFile);
-
-        if (cards.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "No data found in the CSV file.", "Error", JOptionPane.ERROR_MESSAGE);
-            System.exit(0);
-        }
-
-        // Populate vocabulary from credit card data
-        vocabularyLoader.loadVocabularyFromCreditCards(cards);
+        // The catalog and its indexes are loaded by loadCatalog once the window is built
 
         // Create the menu bar with "Additional Features" menu
         createMenuBar();
@@ -70,7 +95,7 @@ public class CreditCardGUI extends JFrame {
         JButton recommendButton = new JButton("Recommend Cards");
         recommendButton.setBackground(new Color(0, 153, 76));
         recommendButton.setForeground(Color.WHITE);
-        recommendButton.addActionListener(e -> recommendCards());
+        recommendButton.addActionListener(e -> recommendCards(false));
         inputPanel.add(recommendButton);
 
         JButton resetButton = new JButton("Reset");
@@ -78,20 +103,70 @@ public class CreditCardGUI extends JFrame {
         inputPanel.add(resetButton);
 
         JButton showAllButton = new JButton("Show All Cards");
-        showAllButton.addActionListener(e -> displayCards(cards));
+        showAllButton.addActionListener(e -> showAllCards());
         inputPanel.add(showAllButton);
 
         JButton hideButton = new JButton("Hide Data");
         hideButton.addActionListener(e -> hideData());
         inputPanel.add(hideButton);
 
+        // Ranked mode shows the best-scoring cards a page at a time
+        rankedModeBox = new JCheckBox("Rank by score (top " + RESULT_PAGE_SIZE + ")");
+        inputPanel.add(rankedModeBox);
+
+        nextPageButton = new JButton("Next Page");
+        nextPageButton.setEnabled(false);
+        nextPageButton.addActionListener(e -> showNextPage());
+        inputPanel.add(nextPageButton);
+        for (Component component : inputPanel.getComponents()) {
+            if (!(component instanceof JLabel) && component != nextPageButton) {
+                catalogControls.add(component);
+            }
+        }
+
         // Create the result table
-        resultTable = new JTable(new DefaultTableModel(
-                new Object[]{"Card Name", "Bank Name", "Annual Fee", "Interest Rate", "Rewards"}, 0));
+        // The model views the card store directly; clicking a header sorts by that column.
+        // It is replaced by a model over the catalog once that is loaded.
+        resultModel = new CardTableModel(new CardStore());
+        resultTable = new JTable(resultModel);
         resultTable.setRowHeight(25); // Improved row height
         resultTable.getTableHeader().setFont(new Font("SansSerif", Font.BOLD, 12));
+        resultTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = resultTable.columnAtPoint(e.getPoint());
+                if (column >= 0) {
+                    resultModel.toggleSort(resultTable.convertColumnIndexToModel(column));
+                }
+            }
+        });
         JScrollPane tableScrollPane = new JScrollPane(resultTable);
-        tableScrollPane.setBorder(BorderFactory.createTitledBorder("Credit Card Results"));
+        resultsBorder = BorderFactory.createTitledBorder("Credit Card Results");
+        tableScrollPane.setBorder(resultsBorder);
+        resultsPane = tableScrollPane;
+
+        // Search as you type: a query runs once typing pauses, replacing any query in flight
+        searchDebounce = new javax.swing.Timer(SEARCH_DELAY_MS, e -> recommendCards(true));
+        searchDebounce.setRepeats(false);
+        javax.swing.event.DocumentListener liveSearch = new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                searchDebounce.restart();
+            }
+        };
+        annualFeeField.getDocument().addDocumentListener(liveSearch);
+        interestRateField.getDocument().addDocumentListener(liveSearch);
+        rewardsField.getDocument().addDocumentListener(liveSearch);
 
         // Create output area
         outputArea = new JTextArea(10, 50);
@@ -110,6 +185,15 @@ public class CreditCardGUI extends JFrame {
         resultTab.add(tableScrollPane, BorderLayout.CENTER);
         resultTab.add(outputScrollPane, BorderLayout.SOUTH);
 
+        // Facets of the current result, next to the table
+        facetArea = new JTextArea(20, 34);
+        facetArea.setEditable(false);
+        facetArea.setFont(new Font("Monospaced", Font.PLAIN, 11));
+        facetArea.setBackground(new Color(245, 245, 245));
+        JScrollPane facetScrollPane = new JScrollPane(facetArea);
+        facetScrollPane.setBorder(BorderFactory.createTitledBorder("Facets"));
+        resultTab.add(facetScrollPane, BorderLayout.EAST);
+
         // Additional Features Tab
         featuresTab = new JPanel(new BorderLayout());
         addFeaturesMenu();
@@ -121,8 +205,187 @@ public class CreditCardGUI extends JFrame {
 
         // Layout: Add tabbed pane to the center
         add(tabbedPane, BorderLayout.CENTER);
+        add(createStatusBar(), BorderLayout.SOUTH);
 
         setLocationRelativeTo(null); // Center window
+
+        catalogControls.add(getJMenuBar().getMenu(0));
+        catalogControls.add(featuresMenu);
+        for (Component component : catalogControls) {
+            component.setEnabled(false);
+        }
+        loadCatalog("combined_credit_cards.csv");
+    }
+
+    // Loads the catalog, the search engines and the vocabulary off the EDT, then enables the
+    // controls. The window is no use without the catalog, so this task cannot be cancelled.
+    private void loadCatalog(String csvFile) {
+        startTask(null, new SwingWorker<CatalogLoad, Void>() {
+            @Override
+            protected CatalogLoad doInBackground() {
+                CatalogLoad load = new CatalogLoad();
+                load.cards = loadCards(csvFile);
+                if (load.cards.isEmpty()) {
+                    return load;
+                }
+                setProgress(30);
+                load.recommendationEngine = new RecommendationEngine(load.cards);
+                setProgress(50);
+                load.facetEngine = new FacetEngine(load.cards);
+                setProgress(60);
+                // Populate vocabulary from credit card data, or from the saved index when the catalog is unchanged
+                load.vocabularyLoader = loadVocabulary(csvFile, load.cards);
+                setProgress(100);
+                return load;
+            }
+
+            @Override
+            protected void done() {
+                CatalogLoad load;
+                try {
+                    load = get();
+                } catch (InterruptedException | CancellationException | ExecutionException e) {
+                    e.printStackTrace();
+                    load = new CatalogLoad();
+                    load.cards = new CardStore();
+                }
+                if (load.cards.isEmpty()) {
+                    JOptionPane.showMessageDialog(CreditCardGUI.this, "No data found in the CSV file.", "Error", JOptionPane.ERROR_MESSAGE);
+                    System.exit(0);
+                }
+                catalogLoaded(load);
+            }
+        }, "Loading card catalog...");
+        cancelButton.setEnabled(false);
+    }
+
+    private void catalogLoaded(CatalogLoad load) {
+        cards = load.cards;
+        recommendationEngine = load.recommendationEngine;
+        incrementalSearch = new IncrementalSearch(recommendationEngine);
+        facetEngine = load.facetEngine;
+        vocabularyLoader = load.vocabularyLoader;
+        spellChecker = new SpellChecker(vocabularyLoader);
+        frequencyMode = FrequencyCounter.Mode.fromName(System.getProperty(FrequencyCounter.MODE_PROPERTY));
+        resultModel = new CardTableModel(cards);
+        resultTable.setModel(resultModel);
+        for (Component component : catalogControls) {
+            component.setEnabled(true);
+        }
+
+        // The saved spell index does not hold the SymSpell delete index; build it in the
+        // background now rather than on the first spell check
+        if (spellChecker.getEngine() == SpellChecker.Engine.SYMSPELL) {
+            new SwingWorker<Void, Void>() {
+                @Override
+                protected Void doInBackground() {
+                    spellChecker.warmUp();
+                    return null;
+                }
+            }.execute();
+        }
+    }
+
+    // What the startup worker hands back to the EDT
+    private static final class CatalogLoad {
+        CardStore cards;
+        RecommendationEngine recommendationEngine;
+        FacetEngine facetEngine;
+        VocabularyLoader vocabularyLoader;
+    }
+
+    // Progress of the most recent background task, with a button to cancel it
+    private JPanel createStatusBar() {
+        statusLabel = new JLabel(" ");
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setVisible(false);
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(e -> {
+            if (activeTask != null) {
+                activeTask.cancel(true);
+            }
+        });
+
+        JPanel statusBar = new JPanel(new BorderLayout(10, 0));
+        statusBar.setBorder(BorderFactory.createEmptyBorder(0, 10, 5, 10));
+        statusBar.add(statusLabel, BorderLayout.WEST);
+        statusBar.add(progressBar, BorderLayout.CENTER);
+        statusBar.add(cancelButton, BorderLayout.EAST);
+        return statusBar;
+    }
+
+    // Cancel the task being replaced, then run the new one and follow its progress
+    private <W extends SwingWorker<?, ?>> W startTask(SwingWorker<?, ?> previous, W task, String description) {
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        activeTask = task;
+        statusLabel.setText(description);
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(true);
+        cancelButton.setEnabled(true);
+
+        // Property changes are delivered on the EDT
+        task.addPropertyChangeListener(evt -> {
+            if (task != activeTask) {
+                return;
+            }
+            if ("progress".equals(evt.getPropertyName())) {
+                progressBar.setIndeterminate(false);
+                progressBar.setValue((Integer) evt.getNewValue());
+            } else if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+                activeTask = null;
+                statusLabel.setText(task.isCancelled() ? "Cancelled" : " ");
+                progressBar.setVisible(false);
+                cancelButton.setEnabled(false);
+            }
+        });
+        task.execute();
+        return task;
+    }
+
+    // Runs a card query off the EDT and hands the matching catalog rows to the table model
+    private abstract class ResultWorker extends SwingWorker<int[], Void> {
+
+        // The full match, when the query computes one; its facets are shown once the rows are
+        CardBitmap matches;
+
+        // Called on the worker thread
+        abstract int[] query() throws Exception;
+
+        // Called on the EDT once the rows are shown
+        void finished(int count) {
+        }
+
+        void show(int[] rows) {
+            resultModel.setRows(rows);
+        }
+
+        @Override
+        protected int[] doInBackground() throws Exception {
+            return query();
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return; // A newer query owns the table now
+            }
+            try {
+                int[] rows = get();
+                show(rows);
+                finished(rows.length);
+                if (matches != null) {
+                    updateFacets(matches);
+                }
+            } catch (InterruptedException | CancellationException e) {
+                // Superseded by a newer query
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace();
+                JOptionPane.showMessageDialog(CreditCardGUI.this, "Invalid input. Please check your values.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
     }
 
     private void createMenuBar() {
@@ -213,8 +476,31 @@ public class CreditCardGUI extends JFrame {
     // ** New methods to handle Data Validation and Regex Matching **
 
     private void performDataValidation() {
-        List<String[]> validationResults = DataValidation.validateCardData(cards);
+        validationWorker = startTask(validationWorker, new SwingWorker<List<String[]>, Void>() {
+            @Override
+            protected List<String[]> doInBackground() {
+                int total = Math.max(1, cards.size());
+                return DataValidation.validateCardData(cards,
+                        rowsDone -> setProgress((int) (rowsDone * 100L / total)));
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    showValidationResults(get());
+                } catch (InterruptedException | CancellationException e) {
+                    // Cancelled by the user
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        }, "Validating card data...");
+    }
 
+    private void showValidationResults(List<String[]> validationResults) {
         // If no errors, show a message
         if (validationResults.isEmpty()) {
             JOptionPane.showMessageDialog(this, "All card data is valid!", "Validation Results", JOptionPane.INFORMATION_MESSAGE);
@@ -287,16 +573,71 @@ public class CreditCardGUI extends JFrame {
     }
     private void performSpellCheck() {
         String input = JOptionPane.showInputDialog(this, "Enter a word to check:");
-        if (input != null && !input.trim().isEmpty()) {
-            SpellChecker spellChecker = new SpellChecker(vocabularyLoader);
-            String suggestions = spellChecker.spellCheckAndSuggest(input);
-            outputArea.append("Spell Check Results:\n" + suggestions + "\n\n");
+        if (input == null || input.trim().isEmpty()) {
+            return;
         }
+        // Off the EDT: the first check may wait for the correction index to be built
+        spellCheckWorker = startTask(spellCheckWorker, new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                return spellChecker.spellCheckAndSuggest(input);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    outputArea.append("Spell Check Results:\n" + get() + "\n\n");
+                } catch (InterruptedException | CancellationException e) {
+                    // Cancelled by the user
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        }, "Checking spelling...");
     }
 
     private void displayFrequencyCount() {
-        FrequencyCounter counter = new FrequencyCounter(vocabularyLoader);
-        counter.countWordFrequency(); // Implement your frequency counting logic
+        if (frequencyCounter == null && frequencyMode == FrequencyCounter.Mode.EXACT) {
+            frequencyCounter = new FrequencyCounter(vocabularyLoader);
+        }
+        if (frequencyCounter != null) {
+            frequencyCounter.countWordFrequency();
+            return;
+        }
+        // Approximate mode: sketch the columns the vocabulary counts, once, off the EDT
+        frequencyWorker = startTask(frequencyWorker, new SwingWorker<FrequencyCounter, Void>() {
+            @Override
+            protected FrequencyCounter doInBackground() {
+                ApproximateWordCounter counter = new ApproximateWordCounter();
+                for (int row = 0; row < cards.size() && !isCancelled(); row++) {
+                    counter.addText(cards.getName(row));
+                    counter.addText(cards.getBankName(row));
+                    counter.addText(cards.getRewards(row));
+                    if (row % 1024 == 0) {
+                        setProgress((int) (row * 100L / cards.size()));
+                    }
+                }
+                return new FrequencyCounter(counter);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    frequencyCounter = get();
+                    frequencyCounter.countWordFrequency();
+                } catch (InterruptedException | CancellationException e) {
+                    // Cancelled by the user
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        }, "Counting word frequencies...");
     }
 
     private void updateSearchTracker() {
@@ -308,7 +649,8 @@ public class CreditCardGUI extends JFrame {
         String searchResults = searchTracker.getTopSearches();
         outputArea.append(searchResults + "\n\n");
     }
-    private List<File> getHtmlFilesFromCrawledDataFolder() {
+    // Called off the EDT; the caller reports a missing folder
+    private List<File> getHtmlFilesFromCrawledDataFolder() throws FileNotFoundException {
         List<File> htmlFiles = new ArrayList<>();
         File folder = new File("E:\\cc_final\\Assignment1\\src\\main\\resources\\crawled data"); // Specify the path to your crawled data folder
 
@@ -317,7 +659,7 @@ public class CreditCardGUI extends JFrame {
             // Recursively find HTML files in the folder and its subdirectories
             findHtmlFiles(folder, htmlFiles);
         } else {
-            JOptionPane.showMessageDialog(this, "Crawled data folder not found.", "Error", JOptionPane.ERROR_MESSAGE);
+            throw new FileNotFoundException("Crawled data folder not found.");
         }
         return htmlFiles;
     }
@@ -352,107 +694,219 @@ public class CreditCardGUI extends JFrame {
     }
 
     private void displayPageRanking() {
-        // Get the list of HTML files from the crawled data folder
-        List<File> htmlFiles = getHtmlFilesFromCrawledDataFolder();
-        Map<String, Integer> pageWordCounts = new HashMap<>();
+        pageRankWorker = startTask(pageRankWorker, new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws Exception {
+                // Get the list of HTML files from the crawled data folder
+                List<File> htmlFiles = getHtmlFilesFromCrawledDataFolder();
+                Map<String, Integer> pageWordCounts = new HashMap<>();
+
+                for (int i = 0; i < htmlFiles.size() && !isCancelled(); i++) {
+                    File file = htmlFiles.get(i);
+                    int wordCount = countWordsInFile(file);
+                    pageWordCounts.put(file.getPath(), wordCount); // Store the file path and its word count
+                    setProgress((int) ((i + 1) * 100L / htmlFiles.size()));
+                }
+
+                // Sort the pages by word count and get the top 10
+                List<Map.Entry<String, Integer>> sortedPages = pageWordCounts.entrySet()
+                        .stream()
+                        .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
+                        .limit(10)
+                        .collect(Collectors.toList());
+
+                // Prepare the output
+                StringBuilder rankingOutput = new StringBuilder("Top 10 HTML Pages by Word Count:\n");
+                for (Map.Entry<String, Integer> entry : sortedPages) {
+                    rankingOutput.append(entry.getKey()).append(": ").append(entry.getValue()).append(" words\n");
+                }
+                return rankingOutput.toString();
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    // Append to the output area in the GUI
+                    outputArea.append(get() + "\n\n");
+                } catch (InterruptedException | CancellationException e) {
+                    // Cancelled by the user
+                } catch (ExecutionException e) {
+                    JOptionPane.showMessageDialog(CreditCardGUI.this, e.getCause().getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }, "Ranking crawled pages...");
+    }
+
+
+    // Live searches run while the user types, so an empty result is not reported in a dialog
+    private void recommendCards(boolean live) {
+        double maxFee = parseDoubleOrDefault(annualFeeField.getText(), -1);
+        double maxInterestRate = parseDoubleOrDefault(interestRateField.getText(), -1);
+        String rewardsKeyword = rewardsField.getText().toLowerCase().trim();
+
+        // Narrowing criteria are answered from the previous result instead of the whole catalog
+        if (rankedModeBox.isSelected()) {
+            startRankedSearch(worker -> {
+                worker.matches = incrementalSearch.search(maxFee, maxInterestRate, rewardsKeyword);
+                return recommendationEngine.recommendTop(
+                        worker.matches, rewardsKeyword, RESULT_PAGE_SIZE, TopKRecommender.Weights.DEFAULT);
+            }, !live);
+        } else {
+            startSearch(new ResultWorker() {
+                @Override
+                int[] query() {
+                    matches = incrementalSearch.search(maxFee, maxInterestRate, rewardsKeyword);
+                    return matches.toArray();
+                }
 
-        for (File file : htmlFiles) {
-            int wordCount = countWordsInFile(file);
-            pageWordCounts.put(file.getPath(), wordCount); // Store the file path and its word count
+                @Override
+                void finished(int count) {
+                    showMatchCount(count);
+                    if (!live) {
+                        reportIfEmpty(count);
+                    }
+                }
+            });
         }
+    }
 
-        // Sort the pages by word count and get the top 10
-        List<Map.Entry<String, Integer>> sortedPages = pageWordCounts.entrySet()
-                .stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .limit(10)
-                .collect(Collectors.toList());
-
-        // Prepare the output
-        StringBuilder rankingOutput = new StringBuilder("Top 10 HTML Pages by Word Count:\n");
-        for (Map.Entry<String, Integer> entry : sortedPages) {
-            rankingOutput.append(entry.getKey()).append(": ").append(entry.getValue()).append(" words\n");
+    private void showNextPage() {
+        if (pageCursor == null || !pageCursor.hasMore()) {
+            return;
         }
+        TopKRecommender.Cursor cursor = pageCursor;
+        startRankedSearch(worker -> recommendationEngine.nextPage(cursor), false);
+    }
 
-        // Append to the output area in the GUI
-        outputArea.append(rankingOutput.toString() + "\n\n");
+    // The model shows the whole store without copying it, so there is nothing to compute
+    private void showAllCards() {
+        cancelSearch();
+        resultModel.showAll();
+        showMatchCount(cards.size());
+        updateFacets(null);
     }
 
+    // A ranked page; the cursor for the following page is taken over once the page is shown
+    private void startRankedSearch(Function<ResultWorker, TopKRecommender.Page> pageQuery, boolean reportEmpty) {
+        startSearch(new ResultWorker() {
+            private TopKRecommender.Cursor cursor;
 
-    private void recommendCards() {
-        try {
-            double maxFee = parseDoubleOrDefault(annualFeeField.getText(), -1);
-            double maxInterestRate = parseDoubleOrDefault(interestRateField.getText(), -1);
-            String rewardsKeyword = rewardsField.getText().toLowerCase().trim();
-
-            List<CreditCard> recommendedCards = cards.stream()
-                    .filter(card -> maxFee == -1 || card.getAnnualFee() <= maxFee)
-                    .filter(card -> maxInterestRate == -1 || card.getInterestRate() <= maxInterestRate)
-                    .filter(card -> rewardsKeyword.isEmpty() || card.getRewards().toLowerCase().contains(rewardsKeyword))
-                    .collect(Collectors.toList());
-
-            if (recommendedCards.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No cards matched your criteria.", "Info", JOptionPane.INFORMATION_MESSAGE);
+            @Override
+            int[] query() {
+                TopKRecommender.Page page = pageQuery.apply(this);
+                cursor = page.getCursor();
+                return page.getRows();
+            }
+
+            @Override
+            void show(int[] rows) {
+                resultModel.setRankedRows(rows);
             }
-            displayCards(recommendedCards);
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Invalid input. Please check your values.", "Error", JOptionPane.ERROR_MESSAGE);
+
+            @Override
+            void finished(int count) {
+                pageCursor = cursor;
+                nextPageButton.setEnabled(cursor.hasMore());
+                showMatchCount(cursor.getTotalMatches());
+                if (reportEmpty) {
+                    reportIfEmpty(count);
+                }
+            }
+        });
+    }
+
+    // Replaces any query still in flight; the table keeps its rows until the new result is ready
+    private void startSearch(ResultWorker worker) {
+        cancelSearch();
+        searchWorker = startTask(null, worker, "Searching...");
+    }
+
+    private void cancelSearch() {
+        searchDebounce.stop();
+        if (searchWorker != null) {
+            searchWorker.cancel(true);
+            searchWorker = null;
         }
+        pageCursor = null;
+        nextPageButton.setEnabled(false);
     }
 
-    private void resetInputs() {
-        annualFeeField.setText("");
-        interestRateField.setText("");
-        rewardsField.setText("");
+    // Facets of a match (null for the whole catalog), computed off the EDT
+    private void updateFacets(CardBitmap matches) {
+        facetWorker = startTask(facetWorker, new SwingWorker<FacetEngine.Facets, Void>() {
+            @Override
+            protected FacetEngine.Facets doInBackground() {
+                return matches == null ? facetEngine.compute() : facetEngine.compute(matches);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    facetArea.setText(get().format(10));
+                    facetArea.setCaretPosition(0);
+                } catch (InterruptedException | CancellationException e) {
+                    // Replaced by the facets of a newer result
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        }, "Computing facets...");
     }
 
-    private void displayCards(List<CreditCard> cards) {
-        DefaultTableModel tableModel = (DefaultTableModel) resultTable.getModel();
-        tableModel.setRowCount(0); // Clear existing rows
+    private void showMatchCount(int count) {
+        resultsBorder.setTitle("Credit Card Results (" + count + (count == 1 ? " match)" : " matches)"));
+        resultsPane.repaint();
+    }
 
-        for (CreditCard card : cards) {
-            tableModel.addRow(new Object[]{
-                    card.getName(),
-                    card.getBankName(),
-                    card.getAnnualFee(),
-                    card.getInterestRate(),
-                    card.getRewards()
-            });
+    private void reportIfEmpty(int count) {
+        if (count == 0) {
+            JOptionPane.showMessageDialog(this, "No cards matched your criteria.", "Info", JOptionPane.INFORMATION_MESSAGE);
         }
     }
 
+    private void resetInputs() {
+        annualFeeField.setText("");
+        interestRateField.setText("");
+        rewardsField.setText("");
+    }
+
     private void hideData() {
+        cancelSearch();
         outputArea.setText(""); // Clear output area
-        DefaultTableModel tableModel = (DefaultTableModel) resultTable.getModel();
-        tableModel.setRowCount(0); // Clear the table data
+        resultModel.clear(); // Clear the table data
+        if (facetWorker != null) {
+            facetWorker.cancel(true);
+        }
+        facetArea.setText("");
+        resultsBorder.setTitle("Credit Card Results");
+        resultsPane.repaint();
     }
 
 
-    private List<CreditCard> loadCards(String csvFile) {
-        List<CreditCard> cardsList = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
-            reader.readLine(); // Skip header line
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length >= 5) {
-                    double annualFee = parseDoubleOrDefault(data[2], -1);  // Use the same method to parse
-                    double interestRate = parseDoubleOrDefault(data[3], -1);  // Use the same method to parse
-
-                    CreditCard card = new CreditCard(
-                            data[0], // Card Name
-                            data[1], // Bank Name
-                            annualFee,  // Annual Fee
-                            interestRate,  // Interest Rate
-                            data[4] // Rewards
-                    );
-                    cardsList.add(card);
-                }
-            }
+    private CardStore loadCards(String csvFile) {
+        try {
+            return CatalogSnapshot.loadStore(csvFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new CardStore();
+    }
+
+    private VocabularyLoader loadVocabulary(String csvFile, CardStore cards) {
+        try {
+            return SpellIndex.loadVocabulary(csvFile, cards);
         } catch (IOException e) {
             e.printStackTrace();
         }
-        return cardsList;
+        VocabularyLoader loader = new VocabularyLoader();
+        loader.loadVocabularyFromCardStore(cards, ForkJoinPool.commonPool());
+        return loader;
     }
 
     private double parseDoubleOrDefault(String value, double defaultValue) {
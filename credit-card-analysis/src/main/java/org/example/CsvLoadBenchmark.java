@@ -0,0 +1,95 @@
+package org.example;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Throughput benchmark: CardCsvLoader against the old readLine()/split(",") loader.
+// Usage: CsvLoadBenchmark [rows] [rounds]
+public class CsvLoadBenchmark {
+
+    private static final String[] BANKS = {"CIBC Bank", "RBC Bank", "Scotia Bank", "National Bank"};
+    private static final String[] OFFERS = {
+            "Join and get up to $1,700 in value",
+            "Earn 4% cash back on groceries",
+            "Help support the Quebec Breast Cancer Foundation with each Purchase",
+            "\"\"Premium\"\" travel insurance, lounge access and more",
+            "Multi-line offer:\nearn points on everyday purchases"
+    };
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        File csvFile = File.createTempFile("cards-benchmark", ".csv");
+        csvFile.deleteOnExit();
+        writeSyntheticCatalog(csvFile, rows);
+        System.out.printf("Catalog: %,d rows, %,d bytes%n", rows, csvFile.length());
+
+        for (int round = 1; round <= rounds; round++) {
+            long start = System.nanoTime();
+            int legacyCount = loadCardsLegacy(csvFile.getPath()).size();
+            long legacyNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int streamingCount = CardCsvLoader.loadCards(csvFile.getPath()).size();
+            long streamingNanos = System.nanoTime() - start;
+
+            System.out.printf("Round %d: legacy %,d cards in %d ms (%,.0f rows/s) | streaming %,d cards in %d ms (%,.0f rows/s)%n",
+                    round,
+                    legacyCount, legacyNanos / 1_000_000, rows / (legacyNanos / 1e9),
+                    streamingCount, streamingNanos / 1_000_000, rows / (streamingNanos / 1e9));
+        }
+    }
+
+    private static void writeSyntheticCatalog(File file, int rows) throws IOException {
+        Random random = new Random(42);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write("Bank Name,Card Name,Annual Fee ($),Interest Rate (%),Offers\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(BANKS[random.nextInt(BANKS.length)]);
+                writer.write(",Card ");
+                writer.write(Integer.toString(i));
+                writer.write(',');
+                writer.write(random.nextInt(10) == 0 ? "N/A" : Integer.toString(random.nextInt(600)));
+                writer.write(',');
+                writer.write(random.nextInt(10) == 0 ? "N/A" : (9 + random.nextInt(14)) + ".99");
+                writer.write(",\"");
+                writer.write(OFFERS[random.nextInt(OFFERS.length)]);
+                writer.write("\"\n");
+            }
+        }
+    }
+
+    // The previous CreditCardGUI.loadCards implementation, kept for comparison
+    private static List<CreditCard> loadCardsLegacy(String csvFile) throws IOException {
+        List<CreditCard> cardsList = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] data = line.split(",");
+                if (data.length >= 5) {
+                    cardsList.add(new CreditCard(data[0], data[1],
+                            parseDoubleOrDefault(data[2], -1),
+                            parseDoubleOrDefault(data[3], -1),
+                            data[4]));
+                }
+            }
+        }
+        return cardsList;
+    }
+
+    private static double parseDoubleOrDefault(String value, double defaultValue) {
+        try {
+            if (value != null && !value.equals("N/A")) {
+                return Double.parseDouble(value);
+            }
+        } catch (NumberFormatException e) {
+            // Same behaviour as the old loader
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,324 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+// Streaming RFC 4180 record reader.
+// Reads the input through one char buffer and unescapes each record into a reusable
+// record buffer, so quoted fields with embedded commas, quotes and newlines are handled
+// in a single pass. Numeric columns can be read straight from the buffer without
+// creating a String for the field.
+public class CsvRecordReader implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    // Parser states
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    // Powers of ten that are exact as doubles, used by the fast numeric path
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int pos;
+    private int limit;
+    private boolean firstFill = true;
+
+    // Unescaped characters of the current record and the field boundaries inside it
+    private char[] record = new char[256];
+    private int recordLength;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+    private long recordNumber;
+
+    public CsvRecordReader(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvRecordReader(Reader reader, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+    }
+
+    // Advance to the next record. Returns false once the input is exhausted.
+    public boolean nextRecord() throws IOException {
+        recordLength = 0;
+        fieldCount = 0;
+        int fieldStart = 0;
+        int state = FIELD_START;
+        boolean sawAny = false;
+
+        while (true) {
+            if (pos == limit && !fill()) {
+                if (!sawAny) {
+                    return false;
+                }
+                endField(fieldStart);
+                recordNumber++;
+                return true;
+            }
+            char c = buffer[pos++];
+            sawAny = true;
+
+            switch (state) {
+                case FIELD_START:
+                    if (c == '"') {
+                        state = QUOTED;
+                        break;
+                    }
+                    // Unquoted field; re-read this character as its first
+                    pos--;
+                    state = UNQUOTED;
+                    break;
+                case UNQUOTED:
+                    if (c == ',') {
+                        endField(fieldStart);
+                        fieldStart = recordLength;
+                        state = FIELD_START;
+                    } else if (c == '\n') {
+                        endField(fieldStart);
+                        recordNumber++;
+                        return true;
+                    } else if (c == '\r') {
+                        skipLineFeed();
+                        endField(fieldStart);
+                        recordNumber++;
+                        return true;
+                    } else {
+                        append(c);
+                    }
+                    break;
+                case QUOTED:
+                    if (c == '"') {
+                        state = QUOTE_IN_QUOTED;
+                    } else {
+                        append(c);
+                    }
+                    break;
+                case QUOTE_IN_QUOTED:
+                    if (c == '"') {
+                        // Escaped quote ("") inside a quoted field
+                        append('"');
+                        state = QUOTED;
+                    } else {
+                        // Closing quote; re-read this character as part of the unquoted tail
+                        pos--;
+                        state = UNQUOTED;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown parser state: " + state);
+            }
+        }
+    }
+
+    // Number of fields in the current record
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    // 1-based number of the current record (the header counts as record 1)
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    public int getFieldLength(int field) {
+        checkField(field);
+        return fieldEnds[field] - fieldStarts[field];
+    }
+
+    public char charAt(int field, int index) {
+        checkField(field);
+        return record[fieldStarts[field] + index];
+    }
+
+    // Materialize a field as a String
+    public String getString(int field) {
+        checkField(field);
+        return new String(record, fieldStarts[field], fieldEnds[field] - fieldStarts[field]);
+    }
+
+    // Pass the words of a field to a sink without materializing the field
+    public int tokenize(int field, Tokenizer tokenizer, Tokenizer.WordSink sink) {
+        checkField(field);
+        return tokenizer.tokenize(record, fieldStarts[field], fieldEnds[field] - fieldStarts[field], sink);
+    }
+
+    // Compare a field against a String without materializing it
+    public boolean fieldEquals(int field, String value) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int length = fieldEnds[field] - start;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (record[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Parse a numeric field directly from the record buffer.
+    // Accepts an optional leading '$', a sign, ',' thousands separators, a fraction
+    // and a trailing '%'. Anything else (such as "N/A" or an empty field) returns the default.
+    public double getDouble(int field, double defaultValue) {
+        checkField(field);
+        int i = fieldStarts[field];
+        int end = fieldEnds[field];
+
+        while (i < end && record[i] == ' ') {
+            i++;
+        }
+        while (end > i && record[end - 1] == ' ') {
+            end--;
+        }
+        if (end > i && record[end - 1] == '%') {
+            end--;
+        }
+
+        boolean negative = false;
+        if (i < end && (record[i] == '-' || record[i] == '+')) {
+            negative = record[i] == '-';
+            i++;
+        }
+        if (i < end && record[i] == '$') {
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        boolean sawDigit = false;
+        boolean sawPoint = false;
+
+        for (; i < end; i++) {
+            char c = record[i];
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (mantissa == 0 && c == '0') {
+                    if (sawPoint) {
+                        fractionDigits++;
+                    }
+                    continue;
+                }
+                if (++significantDigits > 18) {
+                    return parseSlow(field, defaultValue);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (sawPoint) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !sawPoint) {
+                sawPoint = true;
+            } else if (c == ',' && !sawPoint && sawDigit) {
+                // Thousands separator
+            } else if ((c == 'e' || c == 'E') && sawDigit) {
+                return parseSlow(field, defaultValue);
+            } else {
+                return defaultValue;
+            }
+        }
+
+        if (!sawDigit) {
+            return defaultValue;
+        }
+        double value;
+        if (mantissa < (1L << 53) && fractionDigits < POWERS_OF_TEN.length) {
+            // Both operands are exact, so the division is correctly rounded
+            value = fractionDigits == 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        } else {
+            return parseSlow(field, defaultValue);
+        }
+        return negative ? -value : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Fallback for exponents and very long numbers; only reached for unusual input
+    private double parseSlow(int field, double defaultValue) {
+        String text = getString(field).trim().replace("$", "").replace(",", "");
+        if (text.endsWith("%")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = reader.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            pos = 0;
+            limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        if (firstFill) {
+            firstFill = false;
+            if (buffer[0] == '\uFEFF') {
+                pos = 1; // Skip a UTF-8 byte order mark
+            }
+        }
+        return true;
+    }
+
+    private void skipLineFeed() throws IOException {
+        if (pos == limit && !fill()) {
+            return;
+        }
+        if (buffer[pos] == '\n') {
+            pos++;
+        }
+    }
+
+    private void append(char c) {
+        if (recordLength == record.length) {
+            char[] grown = new char[record.length * 2];
+            System.arraycopy(record, 0, grown, 0, recordLength);
+            record = grown;
+        }
+        record[recordLength++] = c;
+    }
+
+    private void endField(int fieldStart) {
+        if (fieldCount == fieldStarts.length) {
+            int[] starts = new int[fieldCount * 2];
+            int[] ends = new int[fieldCount * 2];
+            System.arraycopy(fieldStarts, 0, starts, 0, fieldCount);
+            System.arraycopy(fieldEnds, 0, ends, 0, fieldCount);
+            fieldStarts = starts;
+            fieldEnds = ends;
+        }
+        fieldStarts[fieldCount] = fieldStart;
+        fieldEnds[fieldCount] = recordLength;
+        fieldCount++;
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " of " + fieldCount);
+        }
+    }
+}
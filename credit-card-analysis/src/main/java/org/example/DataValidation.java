@@ -2,34 +2,71 @@ package org.example;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
 
 public class DataValidation {
 
+    // Rows between progress reports and interrupt checks
+    private static final int PROGRESS_INTERVAL = 1024;
+
     public static List<String[]> validateCardData(List<CreditCard> cards) {
-        List<String[]> results = new ArrayList<>();
+        return validateCardData(CardStore.of(cards));
+    }
+
+    public static List<String[]> validateCardData(CardStore cards) {
+        return validateCardData(cards, rowsDone -> {
+        });
+    }
+
+    // Reports the number of rows validated so far every PROGRESS_INTERVAL rows and at the end,
+    // and stops with a CancellationException once the calling thread is interrupted
+    public static List<String[]> validateCardData(CardStore cards, IntConsumer progress) {
+        List<String[]> results = new ArrayList<>(cards.size());
+
+        for (int row = 0; row < cards.size(); row++) {
+            if (row % PROGRESS_INTERVAL == 0 && row > 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Validation interrupted after " + row + " cards");
+                }
+                progress.accept(row);
+            }
+            double annualFee = cards.getAnnualFee(row);
+            double interestRate = cards.getInterestRate(row);
 
-        for (CreditCard card : cards) {
             // Validate Annual Fee
-            String annualFeeStr = card.getAnnualFee() >= 0 ? String.valueOf(card.getAnnualFee()) : "Invalid";
-            String annualFeeStatus = card.getAnnualFee() >= 0 ? "Valid" : "Invalid";
+            String annualFeeStr = annualFee >= 0 ? String.valueOf(annualFee) : "Invalid";
+            String annualFeeStatus = annualFee >= 0 ? "Valid" : "Invalid";
 
             // Validate Interest Rate
-            String interestRateStr = card.getInterestRate() >= 0 ? String.valueOf(card.getInterestRate()) : "Invalid";
-            String interestRateStatus = card.getInterestRate() >= 0 ? "Valid" : "Invalid";
+            String interestRateStr = interestRate >= 0 ? String.valueOf(interestRate) : "Invalid";
+            String interestRateStatus = interestRate >= 0 ? "Valid" : "Invalid";
 
             // Validate Rewards (non-empty and no special characters)
-            String rewardsStr = card.getRewards();
-            String rewardsStatus = rewardsStr != null && !rewardsStr.trim().isEmpty() && rewardsStr.matches("[a-zA-Z0-9 ]*") ? "Valid" : "Invalid";
+            String rewardsStr = cards.getRewards(row);
+            String rewardsStatus = rewardsStr != null && !rewardsStr.trim().isEmpty() && isAlphanumericOrSpace(rewardsStr) ? "Valid" : "Invalid";
 
             // Add validation status
             results.add(new String[]{
-                    card.getName(),
+                    cards.getBankName(row),
                     annualFeeStr, annualFeeStatus,
                     interestRateStr, interestRateStatus,
                     rewardsStr, rewardsStatus
             });
         }
+        progress.accept(cards.size());
 
         return results;
     }
+
+    // Same check as matches("[a-zA-Z0-9 ]*") without compiling a regex per card
+    private static boolean isAlphanumericOrSpace(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == ' ')) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,146 @@
+package org.example;
+
+// Levenshtein distance kernel for spell checking.
+// Each thread gets its own instance through get(), and the instance keeps its buffers between
+// calls, so comparing a query with many words allocates nothing after warm-up.
+// Words of up to 64 ASCII characters use Myers' bit-parallel algorithm (one machine word per
+// column of the distance table); longer words use a dynamic program over two reused rows.
+// With a maximum distance only the diagonal band that can stay within it is evaluated, and
+// either path stops as soon as the result is known to exceed it.
+public final class EditDistance {
+
+    private static final ThreadLocal<EditDistance> LOCAL = ThreadLocal.withInitial(EditDistance::new);
+
+    // Bit masks of the pattern positions holding each ASCII character
+    private final long[] peq = new long[128];
+    private int[] previous = new int[32];
+    private int[] current = new int[32];
+
+    private EditDistance() {
+    }
+
+    // The calling thread's kernel; do not share it with other threads
+    public static EditDistance get() {
+        return LOCAL.get();
+    }
+
+    // Exact distance
+    public int distance(CharSequence a, CharSequence b) {
+        return distance(a, b, Integer.MAX_VALUE);
+    }
+
+    // Exact distance when it is at most maxDistance, otherwise some value above maxDistance
+    public int distance(CharSequence a, CharSequence b, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Negative maximum distance: " + maxDistance);
+        }
+        // The shorter word is the pattern
+        if (a.length() > b.length()) {
+            CharSequence swap = a;
+            a = b;
+            b = swap;
+        }
+        if (b.length() - a.length() > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (a.length() == 0) {
+            return b.length();
+        }
+        if (a.length() <= 64 && isAscii(a)) {
+            return myers(a, b, maxDistance);
+        }
+        return banded(a, b, maxDistance);
+    }
+
+    private static boolean isAscii(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Hyyro's formulation of Myers' algorithm for the distance between whole words.
+    // Pv and Mv hold the +1 and -1 vertical differences of the current column; the score tracks
+    // the bottom cell as the text is consumed one character at a time.
+    private int myers(CharSequence pattern, CharSequence text, int maxDistance) {
+        int m = pattern.length();
+        for (int i = 0; i < m; i++) {
+            peq[pattern.charAt(i)] |= 1L << i;
+        }
+        long last = 1L << (m - 1);
+        long pv = -1L;
+        long mv = 0;
+        int score = m;
+        int n = text.length();
+        for (int j = 0; j < n; j++) {
+            char c = text.charAt(j);
+            long eq = c < 128 ? peq[c] : 0;
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            // Each remaining text character can lower the score by at most one
+            if (score - (n - 1 - j) > maxDistance) {
+                score = maxDistance + 1;
+                break;
+            }
+            ph = (ph << 1) | 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+        for (int i = 0; i < m; i++) {
+            peq[pattern.charAt(i)] = 0;
+        }
+        return score;
+    }
+
+    // Row-by-row dynamic program limited to cells within maxDistance of the diagonal.
+    // Cells outside the band are treated as maxDistance + 1.
+    private int banded(CharSequence a, CharSequence b, int maxDistance) {
+        int la = a.length();
+        int lb = b.length();
+        int limit = (int) Math.min((long) maxDistance + 1, (long) Math.max(la, lb) + 1);
+        if (previous.length <= lb) {
+            previous = new int[lb + 1];
+            current = new int[lb + 1];
+        }
+        int[] prev = previous;
+        int[] curr = current;
+        for (int j = 0; j <= lb; j++) {
+            prev[j] = Math.min(j, limit);
+        }
+        for (int i = 1; i <= la; i++) {
+            int from = Math.max(1, i - limit);
+            int to = Math.min(lb, i + limit);
+            curr[from - 1] = from == 1 ? Math.min(i, limit) : limit;
+            int rowMin = curr[from - 1];
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = prev[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                int value = Math.min(cost, Math.min(prev[j], curr[j - 1]) + 1);
+                value = Math.min(value, limit);
+                curr[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (to < lb) {
+                curr[to + 1] = limit;
+            }
+            if (rowMin >= limit) {
+                return maxDistance + 1;
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        int result = prev[lb];
+        return result >= limit ? maxDistance + 1 : result;
+    }
+}
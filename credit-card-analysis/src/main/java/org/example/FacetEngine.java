@@ -0,0 +1,233 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Summary views over the catalog or over a filtered result: card count per bank, annual fee and
+// APR histograms, and how many cards mention each of a set of rewards terms.
+// Every requested facet is filled in the same pass over the rows. Large inputs are split across
+// the common fork-join pool; each split fills its own primitive counters and the counters are
+// added together at the end, so there is no shared state while counting.
+public class FacetEngine {
+
+    // Default histogram bucket upper bounds; values above the last bound get their own bucket
+    public static final double[] DEFAULT_FEE_BOUNDS = {0, 50, 100, 150, 200};
+    public static final double[] DEFAULT_RATE_BOUNDS = {10, 15, 20, 22, 25};
+    public static final String[] DEFAULT_REWARDS_TERMS = {"points", "cash back", "travel", "bonus", "insurance", "no annual fee"};
+
+    // Below this many rows a sequential pass is faster than splitting the work
+    private static final int PARALLEL_THRESHOLD = 20_000;
+
+    // Counts for one set of rows
+    public static final class Facets {
+        private final CardStore store;
+        private final double[] feeBounds;
+        private final double[] rateBounds;
+        private final String[] rewardsTerms;
+        private int total;
+        private int[] bankCounts;
+        private int[] feeCounts;
+        private int feeUnknown;
+        private int[] rateCounts;
+        private int rateUnknown;
+        private int[] termCounts;
+
+        private Facets(CardStore store, double[] feeBounds, double[] rateBounds, String[] rewardsTerms) {
+            this.store = store;
+            this.feeBounds = feeBounds;
+            this.rateBounds = rateBounds;
+            this.rewardsTerms = rewardsTerms;
+            this.bankCounts = new int[store.getBankCount()];
+            this.feeCounts = feeBounds == null ? null : new int[feeBounds.length + 1];
+            this.rateCounts = rateBounds == null ? null : new int[rateBounds.length + 1];
+            this.termCounts = rewardsTerms == null ? null : new int[rewardsTerms.length];
+        }
+
+        private void add(int row) {
+            total++;
+            int bankId = store.getBankId(row);
+            if (bankId >= bankCounts.length) {
+                bankCounts = Arrays.copyOf(bankCounts, store.getBankCount());
+            }
+            bankCounts[bankId]++;
+
+            if (feeCounts != null) {
+                double fee = store.getAnnualFee(row);
+                if (fee < 0) {
+                    feeUnknown++;
+                } else {
+                    feeCounts[bucket(feeBounds, fee)]++;
+                }
+            }
+            if (rateCounts != null) {
+                double rate = store.getInterestRate(row);
+                if (rate < 0) {
+                    rateUnknown++;
+                } else {
+                    rateCounts[bucket(rateBounds, rate)]++;
+                }
+            }
+            if (termCounts != null) {
+                for (int i = 0; i < rewardsTerms.length; i++) {
+                    if (store.rewardsContain(row, rewardsTerms[i])) {
+                        termCounts[i]++;
+                    }
+                }
+            }
+        }
+
+        private void merge(Facets other) {
+            total += other.total;
+            bankCounts = addInto(bankCounts, other.bankCounts);
+            feeUnknown += other.feeUnknown;
+            rateUnknown += other.rateUnknown;
+            if (feeCounts != null) {
+                addInto(feeCounts, other.feeCounts);
+            }
+            if (rateCounts != null) {
+                addInto(rateCounts, other.rateCounts);
+            }
+            if (termCounts != null) {
+                addInto(termCounts, other.termCounts);
+            }
+        }
+
+        private static int[] addInto(int[] target, int[] source) {
+            if (source.length > target.length) {
+                target = Arrays.copyOf(target, source.length);
+            }
+            for (int i = 0; i < source.length; i++) {
+                target[i] += source[i];
+            }
+            return target;
+        }
+
+        // First bucket whose upper bound is >= value, or the overflow bucket
+        private static int bucket(double[] bounds, double value) {
+            int index = Arrays.binarySearch(bounds, value);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        // Indexed by CardStore bank id
+        public int[] getBankCounts() {
+            return bankCounts.clone();
+        }
+
+        public int getCountForBank(String bankName) {
+            int bankId = store.findBankId(bankName);
+            return bankId < 0 || bankId >= bankCounts.length ? 0 : bankCounts[bankId];
+        }
+
+        // One count per bound plus a final bucket for larger values; N/A fees are counted apart
+        public int[] getFeeHistogram() {
+            return feeCounts == null ? null : feeCounts.clone();
+        }
+
+        public int getFeeUnknownCount() {
+            return feeUnknown;
+        }
+
+        public int[] getRateHistogram() {
+            return rateCounts == null ? null : rateCounts.clone();
+        }
+
+        public int getRateUnknownCount() {
+            return rateUnknown;
+        }
+
+        public String[] getRewardsTerms() {
+            return rewardsTerms == null ? null : rewardsTerms.clone();
+        }
+
+        // Cards whose offer text contains each rewards term
+        public int[] getTermCounts() {
+            return termCounts == null ? null : termCounts.clone();
+        }
+
+        public double getTermShare(int term) {
+            return total == 0 ? 0 : (double) termCounts[term] / total;
+        }
+
+        // Plain-text summary for display, listing at most maxBanks banks by count
+        public String format(int maxBanks) {
+            StringBuilder text = new StringBuilder();
+            text.append("Cards: ").append(total).append("\n\nBy bank:\n");
+            Integer[] banks = new Integer[bankCounts.length];
+            for (int i = 0; i < banks.length; i++) {
+                banks[i] = i;
+            }
+            Arrays.sort(banks, (a, b) -> Integer.compare(bankCounts[b], bankCounts[a]));
+            for (int i = 0; i < banks.length && i < maxBanks && bankCounts[banks[i]] > 0; i++) {
+                text.append(String.format("  %-24s %6d%n", store.getBankNameById(banks[i]), bankCounts[banks[i]]));
+            }
+            if (feeCounts != null) {
+                text.append("\nAnnual fee:\n");
+                appendHistogram(text, feeBounds, feeCounts, feeUnknown, "$%.0f");
+            }
+            if (rateCounts != null) {
+                text.append("\nAPR:\n");
+                appendHistogram(text, rateBounds, rateCounts, rateUnknown, "%.0f%%");
+            }
+            if (termCounts != null) {
+                text.append("\nRewards terms:\n");
+                for (int i = 0; i < rewardsTerms.length; i++) {
+                    text.append(String.format("  %-24s %6d  %5.1f%%%n", rewardsTerms[i], termCounts[i], 100 * getTermShare(i)));
+                }
+            }
+            return text.toString();
+        }
+
+        private static void appendHistogram(StringBuilder text, double[] bounds, int[] counts, int unknown, String format) {
+            for (int i = 0; i < counts.length; i++) {
+                String label = i == bounds.length
+                        ? "> " + String.format(format, bounds[i - 1])
+                        : "<= " + String.format(format, bounds[i]);
+                text.append(String.format("  %-24s %6d%n", label, counts[i]));
+            }
+            text.append(String.format("  %-24s %6d%n", "N/A", unknown));
+        }
+    }
+
+    private final CardStore store;
+
+    public FacetEngine(CardStore store) {
+        this.store = store;
+    }
+
+    // Default facets over the whole catalog
+    public Facets compute() {
+        return compute(null, DEFAULT_FEE_BOUNDS, DEFAULT_RATE_BOUNDS, DEFAULT_REWARDS_TERMS);
+    }
+
+    // Default facets over a filtered result
+    public Facets compute(CardBitmap rows) {
+        return compute(rows, DEFAULT_FEE_BOUNDS, DEFAULT_RATE_BOUNDS, DEFAULT_REWARDS_TERMS);
+    }
+
+    // Rows may be null for the whole catalog; a null bounds or terms array skips that facet.
+    // Bounds must be ascending.
+    public Facets compute(CardBitmap rows, double[] feeBounds, double[] rateBounds, String[] rewardsTerms) {
+        String[] terms = null;
+        if (rewardsTerms != null) {
+            terms = new String[rewardsTerms.length];
+            for (int i = 0; i < terms.length; i++) {
+                terms[i] = rewardsTerms[i].toLowerCase().trim();
+            }
+        }
+        String[] lowerCaseTerms = terms;
+
+        IntStream stream = rows == null ? IntStream.range(0, store.size()) : IntStream.of(rows.toArray());
+        int size = rows == null ? store.size() : rows.getCardinality();
+        if (size >= PARALLEL_THRESHOLD) {
+            stream = stream.parallel();
+        }
+        return stream.collect(
+                () -> new Facets(store, feeBounds, rateBounds, lowerCaseTerms),
+                Facets::add,
+                Facets::merge);
+    }
+}
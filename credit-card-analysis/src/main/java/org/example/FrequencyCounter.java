@@ -1,14 +1,52 @@
 package org.example;
 
-import java.util.*;
 import javax.swing.*;
 
 public class FrequencyCounter {
+
+    // System property choosing how the GUI counts: "exact" (default) or "approximate"
+    public static final String MODE_PROPERTY = "frequencycounter.mode";
+
+    public enum Mode {
+        // Counts from the vocabulary's word map
+        EXACT,
+        // Estimates from an ApproximateWordCounter sketch of the same columns
+        APPROXIMATE;
+
+        public static Mode fromName(String name) {
+            if (name == null || name.isBlank() || name.equalsIgnoreCase("exact")) {
+                return EXACT;
+            }
+            if (name.equalsIgnoreCase("approximate")) {
+                return APPROXIMATE;
+            }
+            throw new IllegalArgumentException("Unknown frequency counter mode: " + name);
+        }
+    }
+
     private final VocabularyLoader vocabularyLoader;
+    // Set in approximate mode, for corpora whose exact counts would not fit in memory
+    private final ApproximateWordCounter approximateCounter;
 
     // Constructor accepts a VocabularyLoader instance
     public FrequencyCounter(VocabularyLoader loader) {
         this.vocabularyLoader = loader;
+        this.approximateCounter = null;
+    }
+
+    // Approximate mode: counts come from a fixed-size sketch of the corpus
+    public FrequencyCounter(ApproximateWordCounter counter) {
+        this.vocabularyLoader = null;
+        this.approximateCounter = counter;
+    }
+
+    public boolean isApproximate() {
+        return approximateCounter != null;
+    }
+
+    // Frequency of a normalized word; in approximate mode an estimate that is never too low
+    public long getCount(String word) {
+        return isApproximate() ? approximateCounter.estimateCount(word) : vocabularyLoader.getFrequency(word);
     }
 
     // Method to count the frequency of a user-input word
@@ -23,13 +61,14 @@ public class FrequencyCounter {
 
         inputWord = inputWord.trim().toLowerCase(); // Normalize the word (to lowercase)
 
-        // Get the frequency map from the vocabulary loader
-        Map<String, Integer> frequencyMap = vocabularyLoader.getFrequencyMap();
-
-        // Check if the word exists in the frequency map
-        int count = frequencyMap.getOrDefault(inputWord, 0);
+        // Look the word up (0 when absent)
+        long count = getCount(inputWord);
 
         // Display the frequency count
-        JOptionPane.showMessageDialog(null, "The word '" + inputWord + "' appears " + count + " times.", "Word Frequency", JOptionPane.INFORMATION_MESSAGE);
+        String message = isApproximate()
+                ? "The word '" + inputWord + "' appears about " + count + " times (at most "
+                        + approximateCounter.getSketch().getErrorBound() + " too many)."
+                : "The word '" + inputWord + "' appears " + count + " times.";
+        JOptionPane.showMessageDialog(null, message, "Word Frequency", JOptionPane.INFORMATION_MESSAGE);
     }
 }
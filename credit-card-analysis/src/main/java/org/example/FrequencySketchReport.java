@@ -0,0 +1,152 @@
+package org.example;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Accuracy of the approximate word counts against exact counts on a sample.
+// The first sample texts (lines) of the input are counted both by an ApproximateWordCounter and
+// exactly in a TermDictionary; the report compares point estimates for every distinct word and
+// the reported heavy hitters with the exact top words, next to the guaranteed bounds.
+// Usage: FrequencySketchReport [textFile]... [-e epsilon] [-d delta] [-k heavyHitters] [-t top] [-s sampleTexts]
+// Without text files a synthetic corpus with a Zipf-like word distribution is used.
+public class FrequencySketchReport {
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    public static void main(String[] args) throws IOException {
+        List<String> inputs = new ArrayList<>();
+        double epsilon = ApproximateWordCounter.DEFAULT_EPSILON;
+        double delta = ApproximateWordCounter.DEFAULT_DELTA;
+        int heavyHitters = ApproximateWordCounter.DEFAULT_HEAVY_HITTERS;
+        int top = 20;
+        long sampleTexts = 1_000_000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-e" -> epsilon = Double.parseDouble(args[++i]);
+                case "-d" -> delta = Double.parseDouble(args[++i]);
+                case "-k" -> heavyHitters = Integer.parseInt(args[++i]);
+                case "-t" -> top = Integer.parseInt(args[++i]);
+                case "-s" -> sampleTexts = Long.parseLong(args[++i]);
+                default -> inputs.add(args[i]);
+            }
+        }
+
+        ApproximateWordCounter approximate = new ApproximateWordCounter(epsilon, delta, heavyHitters);
+        TermDictionary exact = new TermDictionary();
+        Tokenizer.WordSink exactSink = (word, length) -> exact.add(word, 0, length, 1);
+        long texts = 0;
+        if (inputs.isEmpty()) {
+            Random random = new Random(42);
+            String[] pool = new String[200_000];
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = randomWord(random);
+            }
+            StringBuilder text = new StringBuilder();
+            for (; texts < sampleTexts; texts++) {
+                text.setLength(0);
+                for (int w = 0; w < 10; w++) {
+                    text.append(pool[zipf(pool.length, random)]).append(' ');
+                }
+                approximate.addText(text);
+                Tokenizer.get().tokenize(text, exactSink);
+            }
+        } else {
+            for (String input : inputs) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new FileInputStream(input), StandardCharsets.UTF_8), 1 << 16)) {
+                    String line;
+                    while (texts < sampleTexts && (line = reader.readLine()) != null) {
+                        approximate.addText(line);
+                        Tokenizer.get().tokenize(line, exactSink);
+                        texts++;
+                    }
+                }
+            }
+        }
+
+        long total = exact.getTotalCount();
+        System.out.printf("Sample: %,d texts, %,d words, %,d distinct%n", texts, total, exact.size());
+        System.out.printf("Memory: exact %,d KB, approximate %,d KB (fixed)%n",
+                exact.getMemoryBytes() >> 10, approximate.getMemoryBytes() >> 10);
+        reportSketch(approximate.getSketch(), exact);
+        reportHeavyHitters(approximate.getHeavyHitters(), exact, top);
+    }
+
+    private static void reportSketch(CountMinSketch sketch, TermDictionary exact) {
+        long bound = sketch.getErrorBound();
+        long exactWords = 0;
+        long withinBound = 0;
+        long maxError = 0;
+        double errorSum = 0;
+        TermDictionary.TermView word = exact.newView();
+        for (int id = 0; id < exact.size(); id++) {
+            long error = sketch.estimate(word.moveTo(id)) - exact.getCount(id);
+            if (error < 0) {
+                throw new IllegalStateException("Sketch under-counted " + word);
+            }
+            if (error == 0) {
+                exactWords++;
+            }
+            if (error <= bound) {
+                withinBound++;
+            }
+            maxError = Math.max(maxError, error);
+            errorSum += error;
+        }
+        int words = Math.max(exact.size(), 1);
+        System.out.printf("Count-min sketch: epsilon %s, delta %s, %d x %,d cells%n",
+                sketch.getEpsilon(), sketch.getDelta(), sketch.getDepth(), sketch.getWidth());
+        System.out.printf("  bound %,d; mean over-count %.2f, max %,d; exact for %.1f%%, within bound for %.3f%% (guaranteed %.1f%%)%n",
+                bound, errorSum / words, maxError, 100.0 * exactWords / words, 100.0 * withinBound / words,
+                100 * (1 - sketch.getDelta()));
+    }
+
+    private static void reportHeavyHitters(SpaceSavingCounter heavyHitters, TermDictionary exact, int top) {
+        long bound = heavyHitters.getErrorBound();
+        int[] exactTop = exact.topIds(top);
+        Map<String, SpaceSavingCounter.HeavyHitter> reported = new HashMap<>();
+        for (SpaceSavingCounter.HeavyHitter hitter : heavyHitters.top(top)) {
+            reported.put(hitter.getWord(), hitter);
+        }
+        int found = 0;
+        long maxError = 0;
+        for (int id : exactTop) {
+            SpaceSavingCounter.HeavyHitter hitter = reported.get(exact.getTerm(id));
+            if (hitter != null) {
+                found++;
+                maxError = Math.max(maxError, hitter.getCount() - exact.getCount(id));
+            }
+        }
+        // Every word above the bound must be monitored
+        int missed = 0;
+        for (int id = 0; id < exact.size(); id++) {
+            if (exact.getCount(id) > bound && !heavyHitters.isMonitored(exact.getTerm(id))) {
+                missed++;
+            }
+        }
+        System.out.printf("Space-Saving: %,d counters, bound %,d%n", heavyHitters.getCapacity(), bound);
+        System.out.printf("  top %d: %d of the exact top %d reported, max over-count %,d; %d words above the bound not monitored%n",
+                top, found, exactTop.length, maxError, missed);
+        for (int i = 0; i < exactTop.length && i < 10; i++) {
+            int id = exactTop[i];
+            SpaceSavingCounter.HeavyHitter hitter = reported.get(exact.getTerm(id));
+            System.out.printf("  %-15s exact %,10d  reported %s%n", exact.getTerm(id), exact.getCount(id),
+                    hitter == null ? "-" : String.format("%,d (+/-%,d)", hitter.getCount(), hitter.getError()));
+        }
+    }
+
+    // Rank in [0, n) with probability falling off roughly as 1 / rank
+    private static int zipf(int n, Random random) {
+        return (int) Math.min(n - 1, Math.exp(random.nextDouble() * Math.log(n + 1)) - 1);
+    }
+
+    private static String randomWord(Random random) {
+        int length = 3 + random.nextInt(10);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+}
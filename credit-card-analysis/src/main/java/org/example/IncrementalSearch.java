@@ -0,0 +1,124 @@
+package org.example;
+
+// Search-as-you-type on top of a RecommendationEngine.
+// Remembers the previous criteria and result; when the new criteria can only remove cards
+// (a lower cap, a cap where there was none, a keyword extending the previous keyword) the
+// previous result's rows are re-checked instead of evaluating the query against the catalog,
+// so each keystroke that narrows the query costs less than the one before.
+// Any other change, a catalog update or a different N/A setting starts from the catalog again.
+public class IncrementalSearch {
+
+    private final RecommendationEngine engine;
+    private final CardStore store;
+
+    private RecommendationCache.Key lastKey;
+    private CardBitmap lastResult;
+    private long lastVersion = -1;
+    private boolean lastIncludeUnknown;
+    private boolean lastRefined;
+
+    private long refinedCount;
+    private long fullCount;
+
+    public IncrementalSearch(RecommendationEngine engine) {
+        this.engine = engine;
+        this.store = engine.getStore();
+    }
+
+    // Synchronized because a search that was cancelled may still be finishing on another thread
+    public synchronized CardBitmap search(double maxFee, double maxInterestRate, String rewardsKeyword) {
+        RecommendationCache.Key key = new RecommendationCache.Key(maxFee, maxInterestRate, rewardsKeyword);
+        long version = store.getVersion();
+        boolean includeUnknown = engine.isIncludeUnknownValues();
+
+        CardBitmap result;
+        lastRefined = lastResult != null && version == lastVersion
+                && includeUnknown == lastIncludeUnknown && narrows(lastKey, key);
+        if (lastRefined) {
+            RecommendationCache cache = engine.getResultCache();
+            result = cache.get(key, version);
+            if (result == null) {
+                result = filter(lastResult, key, includeUnknown);
+                cache.put(key, version, result);
+            }
+            refinedCount++;
+        } else {
+            result = engine.match(maxFee, maxInterestRate, rewardsKeyword);
+            fullCount++;
+        }
+
+        lastKey = key;
+        lastResult = result;
+        lastVersion = version;
+        lastIncludeUnknown = includeUnknown;
+        return result;
+    }
+
+    // Forget the previous result, e.g. when the user clears the search
+    public synchronized void reset() {
+        lastKey = null;
+        lastResult = null;
+    }
+
+    // Whether the last search was answered from the previous result
+    public synchronized boolean wasRefined() {
+        return lastRefined;
+    }
+
+    public synchronized long getRefinedCount() {
+        return refinedCount;
+    }
+
+    public synchronized long getFullCount() {
+        return fullCount;
+    }
+
+    // True when every card matching next also matches previous
+    static boolean narrows(RecommendationCache.Key previous, RecommendationCache.Key next) {
+        return capNarrows(previous.getMaxFee(), next.getMaxFee())
+                && capNarrows(previous.getMaxInterestRate(), next.getMaxInterestRate())
+                && keywordNarrows(previous.getRewardsKeyword(), next.getRewardsKeyword());
+    }
+
+    // A keyword matches the offers containing it, so a keyword containing the previous one
+    // can only match fewer offers
+    private static boolean keywordNarrows(String previous, String next) {
+        return next.contains(previous);
+    }
+
+    private static boolean capNarrows(double previous, double next) {
+        if (previous == RecommendationEngine.NO_LIMIT) {
+            return true;
+        }
+        return next != RecommendationEngine.NO_LIMIT && next <= previous;
+    }
+
+    // The same predicates as the engine's bitmaps, checked row by row
+    private CardBitmap filter(CardBitmap candidates, RecommendationCache.Key key, boolean includeUnknown) {
+        double maxFee = key.getMaxFee();
+        double maxRate = key.getMaxInterestRate();
+        String keyword = key.getRewardsKeyword();
+        CardFilters filters = engine.getFilters();
+        int[] rows = candidates.toArray();
+        int count = 0;
+        for (int row : rows) {
+            if (withinCap(store.getAnnualFee(row), maxFee, includeUnknown)
+                    && withinCap(store.getInterestRate(row), maxRate, includeUnknown)
+                    && filters.matchesRewardsKeyword(row, keyword)) {
+                rows[count++] = row;
+            }
+        }
+        return CardBitmap.of(rows, count);
+    }
+
+    // N/A is stored as -1 and passes a cap only when unknown values are included
+    private static boolean withinCap(double value, double max, boolean includeUnknown) {
+        if (max == RecommendationEngine.NO_LIMIT) {
+            return true;
+        }
+        if (value < 0) {
+            return includeUnknown && CardCsvLoader.NOT_AVAILABLE <= max;
+        }
+        return value <= max;
+    }
+}
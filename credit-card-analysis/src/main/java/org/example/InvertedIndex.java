@@ -0,0 +1,418 @@
+package org.example;
+
+import java.util.*;
+
+// Inverted index from rewards terms to sorted posting lists of card row ids.
+// Terms are the normalized words produced by VocabularyLoader.extractWords, so a keyword,
+// AND/OR or prefix lookup is a merge of posting lists instead of a scan over every offer.
+// Free-text keywords are substring matches, which word terms cannot answer ("ash" inside
+// "cashback"), so the index also keeps postings for every character trigram of the offers.
+// The trigram table is built on the first substring query, not with the word postings.
+// The index registers itself as a CardStore listener and follows added, removed and moved rows.
+public class InvertedIndex implements CardStore.Listener {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final CardStore store;
+
+    // Sorted so that prefix lookups are a sub-map range
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+
+    // Case-folded character trigram, packed as three chars -> rows whose rewards contain it.
+    // Null until the first substring query.
+    private volatile TrigramTable trigrams;
+
+    // Trigram keys of the row being indexed, reused from row to row
+    private long[] rowKeys = new long[64];
+
+    public InvertedIndex(CardStore store) {
+        this.store = store;
+        for (int row = 0; row < store.size(); row++) {
+            cardAdded(row);
+        }
+        store.addListener(this);
+    }
+
+    // Rows whose rewards contain the exact term
+    public int[] lookup(String term) {
+        PostingList list = postings.get(term);
+        return list == null ? EMPTY : list.toArray();
+    }
+
+    // Rows whose rewards contain a term starting with the prefix
+    public int[] lookupPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            return EMPTY;
+        }
+        SortedMap<String, PostingList> range = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (range.size() == 1) {
+            return range.values().iterator().next().toArray();
+        }
+        int[][] lists = new int[range.size()][];
+        int i = 0;
+        for (PostingList list : range.values()) {
+            lists[i++] = list.toArray();
+        }
+        return unionAll(lists);
+    }
+
+    // Rows containing every term
+    public int[] matchAll(Collection<String> terms) {
+        int[] result = null;
+        for (String term : sortedByPostingSize(terms)) {
+            int[] rows = lookup(term);
+            result = result == null ? rows : intersect(result, rows);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result == null ? EMPTY : result;
+    }
+
+    // Rows containing at least one term
+    public int[] matchAny(Collection<String> terms) {
+        int[][] lists = new int[terms.size()][];
+        int i = 0;
+        for (String term : terms) {
+            lists[i++] = lookup(term);
+        }
+        return unionAll(lists);
+    }
+
+    // Candidate rows for a case-insensitive substring keyword: every trigram of the keyword
+    // occurs in the offer, so the result is a superset of the matching rows and callers confirm
+    // each one. Returns null when the keyword is too short to narrow the rows.
+    public int[] matchKeyword(String keyword) {
+        if (keyword.length() < 3) {
+            return null;
+        }
+        // Surrogate pairs are compared by code point, not folded char by char
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.isSurrogate(keyword.charAt(i))) {
+                return null;
+            }
+        }
+        TrigramTable table = trigramTable();
+        Set<PostingList> lists = new HashSet<>();
+        for (long key : trigrams(keyword)) {
+            PostingList list = table.get(key);
+            if (list == null || list.size == 0) {
+                return EMPTY;
+            }
+            lists.add(list);
+        }
+        // Intersect starting from the rarest trigram
+        List<PostingList> sorted = new ArrayList<>(lists);
+        sorted.sort(Comparator.comparingInt(list -> list.size));
+        int[] result = sorted.get(0).toArray();
+        for (int i = 1; i < sorted.size() && result.length > 0; i++) {
+            result = intersect(result, sorted.get(i).toArray());
+        }
+        return result;
+    }
+
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    // Zero until the first substring query builds the trigram table
+    public int getTrigramCount() {
+        TrigramTable table = trigrams;
+        return table == null ? 0 : table.size;
+    }
+
+    @Override
+    public void cardAdded(int row) {
+        for (String term : distinctTerms(row)) {
+            postings.computeIfAbsent(term, t -> new PostingList()).add(row);
+        }
+        synchronized (this) {
+            if (trigrams != null) {
+                addTrigrams(trigrams, row);
+            }
+        }
+    }
+
+    @Override
+    public void cardRemoving(int row) {
+        for (String term : distinctTerms(row)) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                list.remove(row);
+                if (list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        // Emptied trigram lists stay in the table; there are few distinct trigrams
+        synchronized (this) {
+            if (trigrams != null) {
+                int count = rowTrigrams(row);
+                for (int i = 0; i < count; i++) {
+                    PostingList list = trigrams.get(rowKeys[i]);
+                    if (list != null) {
+                        list.remove(row);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void cardMoved(int from, int to) {
+        for (String term : distinctTerms(to)) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                list.remove(from);
+                list.add(to);
+            }
+        }
+        synchronized (this) {
+            if (trigrams != null) {
+                int count = rowTrigrams(to);
+                for (int i = 0; i < count; i++) {
+                    PostingList list = trigrams.get(rowKeys[i]);
+                    if (list != null) {
+                        list.remove(from);
+                        list.add(to);
+                    }
+                }
+            }
+        }
+    }
+
+    // Merge intersection of two sorted row arrays
+    public static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Merge union of two sorted row arrays
+    public static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[count++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[count++] = b[j++];
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        while (i < a.length) {
+            result[count++] = a[i++];
+        }
+        while (j < b.length) {
+            result[count++] = b[j++];
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Union of many sorted lists, merged pairwise so each level halves the list count
+    private static int[] unionAll(int[][] lists) {
+        if (lists.length == 0) {
+            return EMPTY;
+        }
+        int count = lists.length;
+        while (count > 1) {
+            int merged = 0;
+            for (int i = 0; i < count; i += 2) {
+                lists[merged++] = i + 1 < count ? union(lists[i], lists[i + 1]) : lists[i];
+            }
+            count = merged;
+        }
+        return lists[0];
+    }
+
+    // Intersect starting from the rarest term so intermediate results stay small
+    private List<String> sortedByPostingSize(Collection<String> terms) {
+        List<String> sorted = new ArrayList<>(terms);
+        sorted.sort(Comparator.comparingInt(term -> {
+            PostingList list = postings.get(term);
+            return list == null ? 0 : list.size;
+        }));
+        return sorted;
+    }
+
+    private Set<String> distinctTerms(int row) {
+        return new HashSet<>(VocabularyLoader.extractWords(store.getRewards(row)));
+    }
+
+    // The trigram table, built over every row on first use
+    private TrigramTable trigramTable() {
+        TrigramTable table = trigrams;
+        if (table == null) {
+            synchronized (this) {
+                table = trigrams;
+                if (table == null) {
+                    table = new TrigramTable();
+                    for (int row = 0; row < store.size(); row++) {
+                        addTrigrams(table, row);
+                    }
+                    trigrams = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    private void addTrigrams(TrigramTable table, int row) {
+        int count = rowTrigrams(row);
+        for (int i = 0; i < count; i++) {
+            table.getOrAdd(rowKeys[i]).add(row);
+        }
+    }
+
+    // Puts the row's trigram keys, repeats included, in rowKeys and returns how many there are
+    private int rowTrigrams(int row) {
+        String text = store.getRewards(row);
+        if (text == null || text.length() < 3) {
+            return 0;
+        }
+        int count = text.length() - 2;
+        if (rowKeys.length < count) {
+            rowKeys = new long[Math.max(count, rowKeys.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            rowKeys[i] = trigram(text, i);
+        }
+        return count;
+    }
+
+    // Trigram keys of a text, repeats included: posting lists ignore a row added twice in a row
+    // and removing an absent row is a no-op
+    private static long[] trigrams(String text) {
+        if (text == null || text.length() < 3) {
+            return new long[0];
+        }
+        long[] keys = new long[text.length() - 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = trigram(text, i);
+        }
+        return keys;
+    }
+
+    private static long trigram(String text, int start) {
+        return (long) fold(text.charAt(start)) << 32 | (long) fold(text.charAt(start + 1)) << 16
+                | fold(text.charAt(start + 2));
+    }
+
+    // Two chars fold alike exactly when String.regionMatches(true, ...) treats them as equal
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    // Open-addressing map from packed trigram to its posting list, probed linearly
+    private static final class TrigramTable {
+        private long[] keys = new long[1024];
+        private PostingList[] lists = new PostingList[1024];
+        private int size;
+
+        PostingList get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); lists[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return lists[slot];
+                }
+            }
+            return null;
+        }
+
+        PostingList getOrAdd(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            for (; lists[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return lists[slot];
+                }
+            }
+            PostingList list = new PostingList();
+            keys[slot] = key;
+            lists[slot] = list;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return list;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            PostingList[] oldLists = lists;
+            keys = new long[oldKeys.length * 2];
+            lists = new PostingList[oldLists.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldLists[i] != null) {
+                    int slot = slot(oldKeys[i], mask);
+                    while (lists[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    lists[slot] = oldLists[i];
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash >>> 32) & mask;
+        }
+    }
+
+    // Growable sorted int list of row ids
+    private static final class PostingList {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            // New rows are normally appended at the end; moved rows may land earlier
+            int position = size;
+            if (size > 0 && rows[size - 1] > row) {
+                position = Arrays.binarySearch(rows, 0, size, row);
+                if (position >= 0) {
+                    return;
+                }
+                position = -position - 1;
+                System.arraycopy(rows, position, rows, position + 1, size - position);
+            } else if (size > 0 && rows[size - 1] == row) {
+                return;
+            }
+            rows[position] = row;
+            size++;
+        }
+
+        void remove(int row) {
+            int position = Arrays.binarySearch(rows, 0, size, row);
+            if (position >= 0) {
+                System.arraycopy(rows, position + 1, rows, position, size - position - 1);
+                size--;
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
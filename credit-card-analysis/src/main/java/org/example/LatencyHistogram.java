@@ -0,0 +1,81 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size, thread-safe latency histogram with log-linear buckets (about 1.6% relative error).
+// Values are recorded in microseconds; memory use does not depend on the number of samples.
+public class LatencyHistogram {
+
+    // Every value below LINEAR_LIMIT has its own bucket; above it each power of two is split
+    // into SUB_BUCKETS equal buckets
+    private static final int SUB_BUCKETS = 64;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    private static final int MAX_SHIFT = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR_LIMIT + MAX_SHIFT * SUB_BUCKETS);
+
+    public void recordNanos(long nanos) {
+        recordMicros(Math.max(0, nanos / 1_000));
+    }
+
+    public void recordMicros(long micros) {
+        counts.incrementAndGet(bucketOf(micros));
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    // Approximate value at the given percentile (0-100), in microseconds
+    public long percentileMicros(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(counts.length() - 1);
+    }
+
+    // Summary line such as "p50=120us p90=340us p99=1.2ms p99.9=3.4ms max<=5.0ms"
+    public String summary() {
+        return "p50=" + format(percentileMicros(50))
+                + " p90=" + format(percentileMicros(90))
+                + " p99=" + format(percentileMicros(99))
+                + " p99.9=" + format(percentileMicros(99.9))
+                + " max<=" + format(percentileMicros(100));
+    }
+
+    private static String format(long micros) {
+        return micros < 1_000 ? micros + "us" : String.format("%.1fms", micros / 1_000.0);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = Math.min(63 - Long.numberOfLeadingZeros(value) - 6, MAX_SHIFT);
+        long sub = Math.min(value >> shift, LINEAR_LIMIT - 1) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) sub;
+    }
+
+    // Upper end of the bucket, so percentiles never understate latency
+    private static long valueOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
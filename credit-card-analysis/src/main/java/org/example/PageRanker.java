@@ -79,9 +79,8 @@ public class PageRanker {
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
             while ((line = reader.readLine()) != null) {
-                // Split the line into words and count them
-                String[] words = line.split("\\W+"); // Split by non-word characters
-                wordCount += words.length;
+                // Count the words split by non-word characters, without building the array
+                wordCount += Tokenizer.countSplitWords(line);
             }
         } catch (IOException e) {
             e.printStackTrace();
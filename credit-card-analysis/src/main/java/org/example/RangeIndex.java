@@ -0,0 +1,150 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Sorted secondary index over one numeric card column.
+// Rows with a known value are kept sorted by that value, so "value <= max" is a binary search
+// that yields a prefix of the sorted row ids. Rows stored with the N/A sentinel (any negative
+// value) are kept in their own list and the caller decides whether they qualify.
+public class RangeIndex {
+
+    // Column accessor, so one index type serves both the fee and the rate column
+    public interface Column {
+        double valueAt(CardStore store, int row);
+    }
+
+    public static final Column ANNUAL_FEE = CardStore::getAnnualFee;
+    public static final Column INTEREST_RATE = CardStore::getInterestRate;
+
+    private final double[] sortedValues;
+    private final int[] sortedRows;
+    private final int[] unknownRows;
+
+    private RangeIndex(double[] sortedValues, int[] sortedRows, int[] unknownRows) {
+        this.sortedValues = sortedValues;
+        this.sortedRows = sortedRows;
+        this.unknownRows = unknownRows;
+    }
+
+    public static RangeIndex build(CardStore store, Column column) {
+        int size = store.size();
+        double[] values = new double[size];
+        int[] rows = new int[size];
+        int[] unknown = new int[size];
+        int known = 0;
+        int unknownCount = 0;
+
+        for (int row = 0; row < size; row++) {
+            double value = column.valueAt(store, row);
+            if (value >= 0) {
+                values[known] = value;
+                rows[known] = row;
+                known++;
+            } else {
+                unknown[unknownCount++] = row;
+            }
+        }
+
+        values = Arrays.copyOf(values, known);
+        rows = Arrays.copyOf(rows, known);
+        sortByValue(values, rows);
+        return new RangeIndex(values, rows, Arrays.copyOf(unknown, unknownCount));
+    }
+
+    // Number of known-valued rows with value <= max; they are sortedRow(0 .. count-1)
+    public int countAtMost(double max) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] <= max) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Row id at a position in value order
+    public int sortedRow(int position) {
+        return sortedRows[position];
+    }
+
+    public double sortedValue(int position) {
+        return sortedValues[position];
+    }
+
+    public int knownCount() {
+        return sortedRows.length;
+    }
+
+    // Rows whose value is N/A, in catalog order
+    public int unknownCount() {
+        return unknownRows.length;
+    }
+
+    public int unknownRow(int position) {
+        return unknownRows[position];
+    }
+
+    // Copy the rows matching "value <= max" (plus the N/A rows when requested) into an array
+    public int[] rowsAtMost(double max, boolean includeUnknown) {
+        int known = countAtMost(max);
+        int[] rows = new int[known + (includeUnknown ? unknownRows.length : 0)];
+        System.arraycopy(sortedRows, 0, rows, 0, known);
+        if (includeUnknown) {
+            System.arraycopy(unknownRows, 0, rows, known, unknownRows.length);
+        }
+        return rows;
+    }
+
+    // Stable bottom-up merge sort of the row ids by value, so equal values keep catalog order
+    private static void sortByValue(double[] values, int[] rows) {
+        int n = values.length;
+        double[] valueBuffer = new double[n];
+        int[] rowBuffer = new int[n];
+        double[] srcValues = values;
+        int[] srcRows = rows;
+        double[] dstValues = valueBuffer;
+        int[] dstRows = rowBuffer;
+
+        for (int width = 1; width < n; width <<= 1) {
+            for (int left = 0; left < n; left += width << 1) {
+                int mid = Math.min(left + width, n);
+                int right = Math.min(left + (width << 1), n);
+                int i = left;
+                int j = mid;
+                int k = left;
+                while (i < mid && j < right) {
+                    if (srcValues[j] < srcValues[i]) {
+                        dstValues[k] = srcValues[j];
+                        dstRows[k++] = srcRows[j++];
+                    } else {
+                        dstValues[k] = srcValues[i];
+                        dstRows[k++] = srcRows[i++];
+                    }
+                }
+                while (i < mid) {
+                    dstValues[k] = srcValues[i];
+                    dstRows[k++] = srcRows[i++];
+                }
+                while (j < right) {
+                    dstValues[k] = srcValues[j];
+                    dstRows[k++] = srcRows[j++];
+                }
+            }
+            double[] swapValues = srcValues;
+            srcValues = dstValues;
+            dstValues = swapValues;
+            int[] swapRows = srcRows;
+            srcRows = dstRows;
+            dstRows = swapRows;
+        }
+
+        if (srcValues != values) {
+            System.arraycopy(srcValues, 0, values, 0, n);
+            System.arraycopy(srcRows, 0, rows, 0, n);
+        }
+    }
+}
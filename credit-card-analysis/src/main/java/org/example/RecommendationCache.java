@@ -0,0 +1,176 @@
+package org.example;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// LRU cache of recommendation results keyed by normalized (maxFee, maxInterestRate, rewardsKeyword).
+// Bounded both by entry count and by the estimated size of the cached bitmaps. Every entry is
+// tagged with the catalog version it was computed from; once the catalog version changes the
+// whole cache is dropped on the next access.
+public class RecommendationCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    // Normalized query criteria
+    public static final class Key {
+        private final double maxFee;
+        private final double maxInterestRate;
+        private final String rewardsKeyword;
+
+        public Key(double maxFee, double maxInterestRate, String rewardsKeyword) {
+            this.maxFee = normalizeLimit(maxFee);
+            this.maxInterestRate = normalizeLimit(maxInterestRate);
+            this.rewardsKeyword = normalizeKeyword(rewardsKeyword);
+        }
+
+        // -0.0 and 0.0 are the same cap
+        private static double normalizeLimit(double limit) {
+            return limit == 0 ? 0.0 : limit;
+        }
+
+        // The filter's own normalization, so equal keys always match the same rows. Inner
+        // whitespace is kept: "cash  back" is a different substring from "cash back".
+        private static String normalizeKeyword(String keyword) {
+            return CardFilters.normalizeKeyword(keyword);
+        }
+
+        public double getMaxFee() {
+            return maxFee;
+        }
+
+        public double getMaxInterestRate() {
+            return maxInterestRate;
+        }
+
+        public String getRewardsKeyword() {
+            return rewardsKeyword;
+        }
+
+        long estimatedBytes() {
+            return 48 + 2L * rewardsKeyword.length();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Double.compare(maxFee, other.maxFee) == 0
+                    && Double.compare(maxInterestRate, other.maxInterestRate) == 0
+                    && rewardsKeyword.equals(other.rewardsKeyword);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(maxFee, maxInterestRate, rewardsKeyword);
+        }
+
+        @Override
+        public String toString() {
+            return "fee<=" + maxFee + ", apr<=" + maxInterestRate + ", rewards~\"" + rewardsKeyword + "\"";
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, CardBitmap> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long catalogVersion = -1;
+    private long estimatedBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public RecommendationCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    public RecommendationCache(int maxEntries, long maxBytes) {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    // Cached result for the key, or null when absent or computed from another catalog version
+    public synchronized CardBitmap get(Key key, long version) {
+        invalidateIfStale(version);
+        CardBitmap result = entries.get(key);
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    public synchronized void put(Key key, long version, CardBitmap result) {
+        invalidateIfStale(version);
+        long size = key.estimatedBytes() + result.estimatedBytes();
+        if (size > maxBytes) {
+            return; // Larger than the whole budget; not worth caching
+        }
+        CardBitmap previous = entries.put(key, result);
+        if (previous != null) {
+            estimatedBytes -= key.estimatedBytes() + previous.estimatedBytes();
+        }
+        estimatedBytes += size;
+
+        Iterator<Map.Entry<Key, CardBitmap>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || estimatedBytes > maxBytes) && eldest.hasNext()) {
+            Map.Entry<Key, CardBitmap> entry = eldest.next();
+            estimatedBytes -= entry.getKey().estimatedBytes() + entry.getValue().estimatedBytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public synchronized String getStats() {
+        long lookups = hits + misses;
+        return String.format("Result cache: %d entries, ~%d KB, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                entries.size(), estimatedBytes / 1024, hits, misses,
+                lookups == 0 ? 0.0 : 100.0 * hits / lookups, evictions);
+    }
+
+    private void invalidateIfStale(long version) {
+        if (version != catalogVersion) {
+            clear();
+            catalogVersion = version;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Answers recommendCards queries against a CardStore.
+// Each criterion becomes a compressed bitmap of matching rows (fee and APR caps from sorted
+// range indexes, the rewards keyword from an inverted index of offer terms), and the bitmaps
+// are intersected smallest first. Predicate bitmaps are cached by CardFilters, and whole
+// query results by a RecommendationCache tied to the catalog version.
+public class RecommendationEngine {
+
+    // Value callers pass for "no limit", matching the GUI's empty-field default
+    public static final double NO_LIMIT = -1;
+
+    private final CardStore store;
+    private final InvertedIndex rewardsIndex;
+    private final CardFilters filters;
+    private final TopKRecommender topK;
+    private final RecommendationCache resultCache = new RecommendationCache();
+
+    public RecommendationEngine(CardStore store) {
+        this.store = store;
+        this.rewardsIndex = new InvertedIndex(store);
+        this.filters = new CardFilters(store, rewardsIndex);
+        this.topK = new TopKRecommender(store);
+    }
+
+    public CardStore getStore() {
+        return store;
+    }
+
+    public InvertedIndex getRewardsIndex() {
+        return rewardsIndex;
+    }
+
+    public RecommendationCache getResultCache() {
+        return resultCache;
+    }
+
+    // Predicate bitmaps for composing custom filters
+    public CardFilters getFilters() {
+        return filters;
+    }
+
+    public boolean isIncludeUnknownValues() {
+        return filters.isIncludeUnknownValues();
+    }
+
+    // Whether cards with an N/A fee or rate count as matching a fee or rate cap
+    public void setIncludeUnknownValues(boolean includeUnknownValues) {
+        if (includeUnknownValues != filters.isIncludeUnknownValues()) {
+            filters.setIncludeUnknownValues(includeUnknownValues);
+            resultCache.clear();
+        }
+    }
+
+    // Matching cards in catalog order
+    public List<CreditCard> recommendCards(double maxFee, double maxInterestRate, String rewardsKeyword) {
+        int[] rows = recommend(maxFee, maxInterestRate, rewardsKeyword);
+        List<CreditCard> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(store.get(row));
+        }
+        return result;
+    }
+
+    // Row ids of the matching cards in catalog order
+    public int[] recommend(double maxFee, double maxInterestRate, String rewardsKeyword) {
+        return match(maxFee, maxInterestRate, rewardsKeyword).toArray();
+    }
+
+    // The best K matching cards by score, with a cursor for the following pages
+    public TopKRecommender.Page recommendTop(double maxFee, double maxInterestRate, String rewardsKeyword,
+                                             int k, TopKRecommender.Weights weights) {
+        return topK.firstPage(match(maxFee, maxInterestRate, rewardsKeyword), rewardsKeyword, k, weights);
+    }
+
+    // The best K rows of an already computed match
+    public TopKRecommender.Page recommendTop(CardBitmap matches, String rewardsKeyword,
+                                             int k, TopKRecommender.Weights weights) {
+        return topK.firstPage(matches, rewardsKeyword, k, weights);
+    }
+
+    public TopKRecommender.Page nextPage(TopKRecommender.Cursor cursor) {
+        return topK.nextPage(cursor);
+    }
+
+    // Number of matching cards, without materializing them
+    public int count(double maxFee, double maxInterestRate, String rewardsKeyword) {
+        return match(maxFee, maxInterestRate, rewardsKeyword).getCardinality();
+    }
+
+    // Bitmap of the matching rows, served from the result cache when possible
+    public CardBitmap match(double maxFee, double maxInterestRate, String rewardsKeyword) {
+        RecommendationCache.Key key = new RecommendationCache.Key(maxFee, maxInterestRate, rewardsKeyword);
+        long version = store.getVersion();
+        CardBitmap result = resultCache.get(key, version);
+        if (result == null) {
+            // Compute from the normalized criteria so equal keys always mean equal results
+            result = computeMatch(key.getMaxFee(), key.getMaxInterestRate(), key.getRewardsKeyword());
+            resultCache.put(key, version, result);
+        }
+        return result;
+    }
+
+    private CardBitmap computeMatch(double maxFee, double maxInterestRate, String rewardsKeyword) {
+        List<CardBitmap> predicates = new ArrayList<>(3);
+        if (maxFee != NO_LIMIT) {
+            predicates.add(filters.annualFeeAtMost(maxFee));
+        }
+        if (maxInterestRate != NO_LIMIT) {
+            predicates.add(filters.interestRateAtMost(maxInterestRate));
+        }
+        if (rewardsKeyword != null && !rewardsKeyword.trim().isEmpty()) {
+            predicates.add(filters.rewardsKeyword(rewardsKeyword));
+        }
+        if (predicates.isEmpty()) {
+            return filters.all();
+        }
+
+        // Smallest first keeps every intermediate result small
+        predicates.sort((a, b) -> Integer.compare(a.getCardinality(), b.getCardinality()));
+        CardBitmap result = predicates.get(0);
+        for (int i = 1; i < predicates.size() && !result.isEmpty(); i++) {
+            result = result.and(predicates.get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Simple closed-loop load generator for RecommendationServer on localhost.
+// Usage: RecommendationLoadTest [baseUrl] [concurrency] [seconds]
+public class RecommendationLoadTest {
+
+    private static final String[] PATHS = {
+            "/recommend?maxFee=0&maxRate=20&rewards=travel",
+            "/recommend?maxFee=150&rewards=cash",
+            "/recommend/top?maxRate=21&rewards=points&limit=10",
+            "/recommend?rewards=value&offset=10&limit=20",
+            "/spellcheck?word=aeroplan",
+            "/search?q=travel"
+    };
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong totalNanos = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService workers = RecommendationServer.newRequestExecutor();
+        for (int w = 0; w < concurrency; w++) {
+            int worker = w;
+            workers.submit(() -> {
+                int i = worker;
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + PATHS[i++ % PATHS.length])).build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            completed.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                    totalNanos.addAndGet(System.nanoTime() - start);
+                }
+                return null;
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 30L, TimeUnit.SECONDS);
+
+        long requests = completed.get() + failed.get();
+        System.out.printf("%,d requests (%,d failed) in %d s: %,.0f req/s, mean latency %.2f ms%n",
+                requests, failed.get(), seconds, completed.get() / (double) seconds,
+                requests == 0 ? 0.0 : totalNanos.get() / 1e6 / requests);
+    }
+}
@@ -0,0 +1,363 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+// Headless HTTP front end for the recommendation, spell-check and search-tracker features.
+// The catalog and vocabulary are loaded once at startup and shared read-only by all requests.
+//
+// Endpoints (all GET, JSON responses):
+//   /recommend?maxFee=&maxRate=&rewards=&offset=&limit=   matching cards in catalog order
+//   /recommend/top?maxFee=&maxRate=&rewards=&limit=        best-scoring cards
+//   /spellcheck?word=                                      spell-check and suggestions
+//   /search?q=                                             record a search, return top searches
+//   /searches                                              top searches
+//   /stats                                                 catalog and cache statistics
+//
+// Usage: RecommendationServer [csvFile] [port]
+public class RecommendationServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 1000;
+
+    private final RecommendationEngine engine;
+    private final VocabularyLoader vocabularyLoader;
+    private final SpellChecker spellChecker;
+    private final SearchTracker searchTracker;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public RecommendationServer(CardStore cards) {
+        this(cards, vocabularyOf(cards));
+    }
+
+    public RecommendationServer(CardStore cards, VocabularyLoader vocabularyLoader) {
+        this.engine = new RecommendationEngine(cards);
+        this.vocabularyLoader = vocabularyLoader;
+        this.spellChecker = new SpellChecker(vocabularyLoader);
+        this.searchTracker = new SearchTracker();
+    }
+
+    private static VocabularyLoader vocabularyOf(CardStore cards) {
+        VocabularyLoader loader = new VocabularyLoader();
+        loader.loadVocabularyFromCardStore(cards, ForkJoinPool.commonPool());
+        return loader;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String csvFile = args.length > 0 ? args[0] : "combined_credit_cards.csv";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+
+        long start = System.nanoTime();
+        CardStore cards = CatalogSnapshot.loadStore(csvFile);
+        RecommendationServer recommendationServer = new RecommendationServer(cards, SpellIndex.loadVocabulary(csvFile, cards));
+        // Before accepting requests, so the first /spellcheck does not build the correction index
+        recommendationServer.spellChecker.warmUp();
+        recommendationServer.start(port);
+        System.out.printf("Loaded %,d cards in %d ms; listening on http://localhost:%d/%n",
+                cards.size(), (System.nanoTime() - start) / 1_000_000, port);
+    }
+
+    public void start(int port) throws IOException {
+        // Headers and body go out as separate writes; without TCP_NODELAY each keep-alive
+        // response waits for the client's delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/recommend", withErrorResponse(this::handleRecommend));
+        server.createContext("/recommend/top", withErrorResponse(this::handleRecommendTop));
+        server.createContext("/spellcheck", withErrorResponse(this::handleSpellCheck));
+        server.createContext("/search", withErrorResponse(this::handleSearch));
+        server.createContext("/searches", withErrorResponse(this::handleTopSearches));
+        server.createContext("/stats", withErrorResponse(this::handleStats));
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    // A virtual thread per request where the runtime supports it (Java 21+), otherwise a
+    // cached platform-thread pool. Looked up reflectively so the build stays on the project's
+    // Java level.
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return Executors.newCachedThreadPool();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not create the request executor", e);
+        }
+    }
+
+    // Handlers map bad parameters to 400 themselves. Anything else they throw becomes a 500 here;
+    // without it the exchange is dropped before sendResponseHeaders and the client hangs until
+    // its read times out.
+    static HttpHandler withErrorResponse(HttpHandler handler) {
+        return exchange -> {
+            try {
+                handler.handle(exchange);
+            } catch (RuntimeException | Error e) {
+                System.err.println("Request " + exchange.getRequestURI() + " failed: " + e);
+                if (exchange.getResponseCode() == -1) {
+                    sendError(exchange, 500, "Internal server error");
+                } else {
+                    // Headers already went out; all that is left is to end the response
+                    exchange.close();
+                }
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+            }
+        };
+    }
+
+    private void handleRecommend(HttpExchange exchange) throws IOException {
+        Map<String, String> params = queryParameters(exchange);
+        try {
+            double maxFee = doubleParam(params, "maxFee");
+            double maxRate = doubleParam(params, "maxRate");
+            String rewards = params.getOrDefault("rewards", "");
+            int offset = intParam(params, "offset", 0, Integer.MAX_VALUE);
+            int limit = intParam(params, "limit", DEFAULT_LIMIT, MAX_LIMIT);
+
+            CardBitmap matches = engine.match(maxFee, maxRate, rewards);
+            int[] rows = matches.page(offset, limit);
+
+            StringBuilder json = new StringBuilder(128 + rows.length * 160);
+            json.append("{\"total\":").append(matches.getCardinality())
+                    .append(",\"offset\":").append(offset)
+                    .append(",\"cards\":");
+            appendCards(json, rows, null);
+            json.append('}');
+            send(exchange, 200, json);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        }
+    }
+
+    private void handleRecommendTop(HttpExchange exchange) throws IOException {
+        Map<String, String> params = queryParameters(exchange);
+        try {
+            double maxFee = doubleParam(params, "maxFee");
+            double maxRate = doubleParam(params, "maxRate");
+            String rewards = params.getOrDefault("rewards", "");
+            int limit = intParam(params, "limit", DEFAULT_LIMIT, MAX_LIMIT);
+
+            TopKRecommender.Page page = engine.recommendTop(maxFee, maxRate, rewards, limit, TopKRecommender.Weights.DEFAULT);
+            StringBuilder json = new StringBuilder(128 + page.getRows().length * 180);
+            json.append("{\"total\":").append(page.getCursor().getTotalMatches()).append(",\"cards\":");
+            appendCards(json, page.getRows(), page.getScores());
+            json.append('}');
+            send(exchange, 200, json);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        }
+    }
+
+    private void handleSpellCheck(HttpExchange exchange) throws IOException {
+        String word = queryParameters(exchange).get("word");
+        if (word == null || word.trim().isEmpty()) {
+            sendError(exchange, 400, "Missing parameter: word");
+            return;
+        }
+        StringBuilder json = new StringBuilder();
+        json.append("{\"word\":");
+        appendString(json, word);
+        json.append(",\"result\":");
+        appendString(json, spellChecker.spellCheckAndSuggest(word.trim()));
+        json.append('}');
+        send(exchange, 200, json);
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        String query = queryParameters(exchange).get("q");
+        if (query == null || query.trim().isEmpty()) {
+            sendError(exchange, 400, "Missing parameter: q");
+            return;
+        }
+        searchTracker.updateSearchFrequency(query);
+        handleTopSearches(exchange);
+    }
+
+    private void handleTopSearches(HttpExchange exchange) throws IOException {
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(searchTracker.getSearchFrequency().entrySet());
+        top.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+
+        StringBuilder json = new StringBuilder("{\"topSearches\":[");
+        for (int i = 0; i < Math.min(10, top.size()); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"query\":");
+            appendString(json, top.get(i).getKey());
+            json.append(",\"count\":").append(top.get(i).getValue()).append('}');
+        }
+        json.append("]}");
+        send(exchange, 200, json);
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        RecommendationCache cache = engine.getResultCache();
+        StringBuilder json = new StringBuilder();
+        json.append("{\"cards\":").append(engine.getStore().size())
+                .append(",\"vocabulary\":").append(vocabularyLoader.getVocabularySize())
+                .append(",\"cacheEntries\":").append(cache.size())
+                .append(",\"cacheHits\":").append(cache.getHitCount())
+                .append(",\"cacheMisses\":").append(cache.getMissCount())
+                .append('}');
+        send(exchange, 200, json);
+    }
+
+    private void appendCards(StringBuilder json, int[] rows, double[] scores) {
+        CardStore store = engine.getStore();
+        json.append('[');
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":");
+            appendString(json, store.getName(row));
+            json.append(",\"bank\":");
+            appendString(json, store.getBankName(row));
+            json.append(",\"annualFee\":");
+            appendNumber(json, store.getAnnualFee(row));
+            json.append(",\"interestRate\":");
+            appendNumber(json, store.getInterestRate(row));
+            json.append(",\"rewards\":");
+            appendString(json, store.getRewards(row));
+            if (scores != null) {
+                json.append(",\"score\":").append(scores[i]);
+            }
+            json.append('}');
+        }
+        json.append(']');
+    }
+
+    // N/A values are stored as -1 and reported as null
+    private static void appendNumber(StringBuilder json, double value) {
+        if (value < 0 || Double.isNaN(value)) {
+            json.append("null");
+        } else {
+            json.append(value);
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(name, value);
+        }
+        return params;
+    }
+
+    // Missing or empty means "no limit", like an empty field in the GUI
+    private static double doubleParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return RecommendationEngine.NO_LIMIT;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + name + ": " + value);
+        }
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue, int max) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < 0) {
+                throw new IllegalArgumentException(name + " must not be negative");
+            }
+            return Math.min(parsed, max);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer for " + name + ": " + value);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendString(json, message);
+        json.append('}');
+        send(exchange, status, json);
+    }
+
+    private static void send(HttpExchange exchange, int status, CharSequence body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package org.example;
 
 import javax.swing.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.*;
-import java.util.stream.Collectors;
 
 public class RegexPatternMatcher {
 
     public static void findPatternInRewards(List<CreditCard> cards) {
+        findPatternInRewards(CardStore.of(cards));
+    }
+
+    public static void findPatternInRewards(CardStore cards) {
         String patternInput = JOptionPane.showInputDialog("Enter a regex pattern:");
         if (patternInput == null || patternInput.trim().isEmpty()) return;
 
@@ -19,10 +23,15 @@ public class RegexPatternMatcher {
             return;
         }
 
-        List<String[]> matches = cards.stream()
-                .filter(card -> pattern.matcher(card.getRewards()).find())  // Match only in rewards
-                .map(card -> new String[]{card.getName(), "Match Found"})
-                .collect(Collectors.toList());
+        // Reuse one Matcher across rows; only matching rows produce output
+        List<String[]> matches = new ArrayList<>();
+        Matcher matcher = pattern.matcher("");
+        for (int row = 0; row < cards.size(); row++) {
+            String rewards = cards.getRewards(row);
+            if (rewards != null && matcher.reset(rewards).find()) {  // Match only in rewards
+                matches.add(new String[]{cards.getName(row), "Match Found"});
+            }
+        }
 
         if (matches.isEmpty()) {
             JOptionPane.showMessageDialog(null, "No matches found for the given pattern.", "Info", JOptionPane.INFORMATION_MESSAGE);
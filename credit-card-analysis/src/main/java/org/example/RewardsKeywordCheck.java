@@ -0,0 +1,79 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.*;
+
+// Checks CardFilters.rewardsKeyword against a plain scan of every offer with
+// getRewards(row).toLowerCase().contains(keyword). The keywords are a fixed list plus every
+// substring of up to eight characters of the catalog's offers, so word fragments such as
+// "ash" (inside "cashback") are covered. Exits with status 1 on the first mismatch.
+// Usage: RewardsKeywordCheck [csvFile] [keyword]...
+public class RewardsKeywordCheck {
+
+    private static final String[] KEYWORDS = {"ash", "avel", "cash back", "travel", "points", "%", "$", "no fee", "x"};
+
+    public static void main(String[] args) throws IOException {
+        String csvFile = args.length > 0 ? args[0] : "combined_credit_cards.csv";
+        CardStore store = CardCsvLoader.loadStore(csvFile);
+        CardFilters filters = new CardFilters(store, new InvertedIndex(store));
+
+        Set<String> keywords = new LinkedHashSet<>(Arrays.asList(KEYWORDS));
+        keywords.addAll(Arrays.asList(args).subList(Math.min(1, args.length), args.length));
+        for (int row = 0; row < store.size(); row++) {
+            String text = store.getRewards(row);
+            if (text == null) {
+                continue;
+            }
+            text = text.toLowerCase();
+            for (int start = 0; start < text.length(); start++) {
+                for (int end = start + 1; end <= Math.min(text.length(), start + 8); end++) {
+                    keywords.add(text.substring(start, end));
+                }
+            }
+        }
+
+        int checked = check(store, filters, keywords, true);
+        System.out.printf("%,d keywords match the substring scan over %,d cards%n", checked, store.size());
+
+        // Removing rows moves the last rows into the gaps; the index must follow them
+        while (store.size() > 2) {
+            store.removeRow(store.size() / 3);
+        }
+        checked = check(store, filters, keywords, false);
+        System.out.printf("After removals: %,d keywords match over %,d cards%n", checked, store.size());
+    }
+
+    private static int check(CardStore store, CardFilters filters, Set<String> keywords, boolean print) {
+        int checked = 0;
+        for (String keyword : keywords) {
+            String kw = keyword.toLowerCase().trim();
+            if (kw.isEmpty()) {
+                continue;
+            }
+            int[] expected = scan(store, kw);
+            int[] actual = filters.rewardsKeyword(kw).toArray();
+            if (!Arrays.equals(expected, actual)) {
+                System.out.printf("Mismatch for '%s': expected %d rows, filter returned %d%n",
+                        kw, expected.length, actual.length);
+                System.exit(1);
+            }
+            if (print && checked < KEYWORDS.length) {
+                System.out.printf("'%s': %d cards%n", kw, actual.length);
+            }
+            checked++;
+        }
+        return checked;
+    }
+
+    private static int[] scan(CardStore store, String kw) {
+        int[] rows = new int[store.size()];
+        int count = 0;
+        for (int row = 0; row < store.size(); row++) {
+            String text = store.getRewards(row);
+            if (text != null && text.toLowerCase().contains(kw)) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+}
@@ -1,18 +1,20 @@
 package org.example;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SearchTracker {
 
     private final Map<String, Integer> searchFrequency;
 
+    // Concurrent map so that the tracker can be shared by request threads
     public SearchTracker() {
-        this.searchFrequency = new HashMap<>();
+        this.searchFrequency = new ConcurrentHashMap<>();
     }
 
     // Update the search frequency for a given query
     public void updateSearchFrequency(String query) {
-        searchFrequency.put(query, searchFrequency.getOrDefault(query, 0) + 1);
+        searchFrequency.merge(query, 1, Integer::sum);
     }
 
     // Method to return top search results as a formatted string
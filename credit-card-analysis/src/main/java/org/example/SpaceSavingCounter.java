@@ -0,0 +1,202 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Space-Saving heavy hitters: the most frequent words of a stream with a fixed number of
+// counters. A word that is not monitored takes over the counter with the smallest count and
+// inherits that count as its possible over-count. Every word occurring more than
+// total / capacity times is monitored, and a monitored word's count is at most total / capacity
+// above its true count.
+// Monitored words live in a TermDictionary whose ids index the count arrays, so words arriving
+// from a tokenizer buffer are counted without creating Strings; a min-heap of ids finds the
+// counter to replace.
+public class SpaceSavingCounter {
+
+    // A monitored word; the true count lies in [count - error, count]
+    public static final class HeavyHitter {
+        private final String word;
+        private final long count;
+        private final long error;
+
+        HeavyHitter(String word, long count, long error) {
+            this.word = word;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return word + ": " + count + (error == 0 ? "" : " (+/-" + error + ")");
+        }
+    }
+
+    private final int capacity;
+    private final TermDictionary words = new TermDictionary();
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] heap;           // Ids, smallest count at the root
+    private final int[] heapIndex;      // Id -> position in the heap
+    private long totalCount;
+
+    public SpaceSavingCounter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        counts = new long[capacity];
+        errors = new long[capacity];
+        heap = new int[capacity];
+        heapIndex = new int[capacity];
+    }
+
+    // Enough counters for a count error of at most epsilon * total
+    public static SpaceSavingCounter forError(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Epsilon must be in (0, 1): " + epsilon);
+        }
+        return new SpaceSavingCounter((int) Math.ceil(1 / epsilon));
+    }
+
+    public void add(char[] chars, int offset, int length, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count: " + count);
+        }
+        totalCount += count;
+        int id = words.getId(chars, offset, length);
+        if (id >= 0) {
+            counts[id] += count;
+            siftDown(heapIndex[id]);
+            return;
+        }
+        if (words.size() < capacity) {
+            id = words.add(chars, offset, length, 0);
+            counts[id] = count;
+            errors[id] = 0;
+            heap[id] = id;
+            heapIndex[id] = id;
+            siftUp(id);
+            return;
+        }
+        // Replace the word with the smallest count
+        int evicted = heap[0];
+        long minCount = counts[evicted];
+        int moved = words.remove(evicted);
+        if (moved >= 0) {
+            // The dictionary moved its last id into the freed one
+            counts[evicted] = counts[moved];
+            errors[evicted] = errors[moved];
+            heapIndex[evicted] = heapIndex[moved];
+            heap[heapIndex[evicted]] = evicted;
+        }
+        id = words.add(chars, offset, length, 0);
+        counts[id] = minCount + count;
+        errors[id] = minCount;
+        heap[0] = id;
+        heapIndex[id] = 0;
+        siftDown(0);
+    }
+
+    public void add(CharSequence word, long count) {
+        char[] chars = new char[word.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = word.charAt(i);
+        }
+        add(chars, 0, chars.length, count);
+    }
+
+    public boolean isMonitored(CharSequence word) {
+        return words.contains(word);
+    }
+
+    // Upper bound on the word's count, or 0 when it is not monitored
+    public long getCount(CharSequence word) {
+        int id = words.getId(word);
+        return id < 0 ? 0 : counts[id];
+    }
+
+    // Up to k monitored words, highest count first; ties in word order
+    public List<HeavyHitter> top(int k) {
+        Integer[] ids = new Integer[words.size()];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = id;
+        }
+        Arrays.sort(ids, (a, b) -> counts[a] != counts[b]
+                ? Long.compare(counts[b], counts[a]) : words.getTerm(a).compareTo(words.getTerm(b)));
+        List<HeavyHitter> top = new ArrayList<>(Math.min(k, ids.length));
+        for (int i = 0; i < ids.length && i < k; i++) {
+            top.add(new HeavyHitter(words.getTerm(ids[i]), counts[ids[i]], errors[ids[i]]));
+        }
+        return top;
+    }
+
+    // Largest possible over-count of any monitored word, and the count above which a word is
+    // sure to be monitored
+    public long getErrorBound() {
+        return totalCount / capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMemoryBytes() {
+        return words.getMemoryBytes() + 8L * (counts.length + errors.length) + 4L * (heap.length + heapIndex.length);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[heap[index]]) {
+                break;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        int size = words.size();
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && counts[heap[right]] < counts[heap[left]]) {
+                smallest = right;
+            }
+            if (counts[heap[index]] <= counts[heap[smallest]]) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int id = heap[i];
+        heap[i] = heap[j];
+        heap[j] = id;
+        heapIndex[heap[i]] = i;
+        heapIndex[heap[j]] = j;
+    }
+}
@@ -0,0 +1,163 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.*;
+
+// Closest-word latency: the old loop over every vocabulary word, the same loop with the bounded
+// EditDistance kernel, the BK-tree and the SymSpell index. Queries are vocabulary words with one or two random edits.
+// Usage: SpellCheckBenchmark [words] [queries] [catalogCsv]
+// With a catalog file the vocabulary comes from its cards instead of synthetic words.
+public class SpellCheckBenchmark {
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    public static void main(String[] args) throws IOException {
+        int wordCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        Random random = new Random(42);
+
+        VocabularyLoader loader = new VocabularyLoader();
+        if (args.length > 2) {
+            loader.loadVocabularyFromCardStore(CardCsvLoader.loadStore(args[2]));
+        } else {
+            for (int i = 0; i < wordCount; i++) {
+                loader.addWord(randomWord(random), 1 + random.nextInt(100));
+            }
+        }
+        List<String> words = new ArrayList<>(loader.getVocabulary());
+        System.out.printf("Vocabulary: %,d words%n", words.size());
+
+        String[] queries = new String[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            queries[i] = misspell(words.get(random.nextInt(words.size())), 1 + random.nextInt(2), random);
+        }
+
+        long start = System.nanoTime();
+        BKTree tree = loader.getWordTree();
+        long treeBuildNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        SymSpellIndex symSpell = loader.getSymSpellIndex();
+        long symSpellBuildNanos = System.nanoTime() - start;
+        System.out.printf("Build: BK-tree %d ms, SymSpell %d ms%n", treeBuildNanos / 1_000_000, symSpellBuildNanos / 1_000_000);
+
+        EditDistance kernel = EditDistance.get();
+        int[] bruteDistances = new int[queryCount];
+        start = System.nanoTime();
+        for (int i = 0; i < queryCount; i++) {
+            bruteDistances[i] = kernel.distance(queries[i], closestByLoop(queries[i], words));
+        }
+        report("Loop", System.nanoTime() - start, queryCount);
+
+        int mismatches = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queryCount; i++) {
+            if (kernel.distance(queries[i], closestByKernel(queries[i], words, kernel)) != bruteDistances[i]) {
+                mismatches++;
+            }
+        }
+        report("Kernel", System.nanoTime() - start, queryCount);
+
+        start = System.nanoTime();
+        for (int i = 0; i < queryCount; i++) {
+            if (kernel.distance(queries[i], tree.closest(queries[i])) != bruteDistances[i]) {
+                mismatches++;
+            }
+        }
+        report("BK-tree", System.nanoTime() - start, queryCount);
+
+        int found = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queryCount; i++) {
+            String closest = symSpell.closest(queries[i]);
+            if (closest != null) {
+                found++;
+                if (kernel.distance(queries[i], closest) != bruteDistances[i]) {
+                    mismatches++;
+                }
+            }
+        }
+        report("SymSpell", System.nanoTime() - start, queryCount);
+        System.out.printf("SymSpell found a word within %d edits for %d of %d queries; %d results disagree with the old loop%n",
+                symSpell.getMaxEditDistance(), found, queryCount, mismatches);
+    }
+
+    // The previous SpellChecker implementation, kept for comparison
+    private static String closestByLoop(String input, Collection<String> vocabulary) {
+        String closestMatch = null;
+        int minDistance = Integer.MAX_VALUE;
+        for (String word : vocabulary) {
+            int distance = levenshteinDistance(input, word);
+            if (distance < minDistance) {
+                minDistance = distance;
+                closestMatch = word;
+            }
+        }
+        return closestMatch;
+    }
+
+    // The same loop with the bounded kernel: each word is only evaluated up to the best distance
+    private static String closestByKernel(String input, Collection<String> vocabulary, EditDistance kernel) {
+        String closestMatch = null;
+        int minDistance = Integer.MAX_VALUE;
+        for (String word : vocabulary) {
+            int distance = kernel.distance(input, word, minDistance - 1);
+            if (distance < minDistance) {
+                minDistance = distance;
+                closestMatch = word;
+                if (distance == 0) {
+                    break;
+                }
+            }
+        }
+        return closestMatch;
+    }
+
+    private static int levenshteinDistance(String a, String b) {
+        int[][] dp = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0) {
+                    dp[i][j] = j;
+                } else if (j == 0) {
+                    dp[i][j] = i;
+                } else {
+                    dp[i][j] = Math.min(
+                            Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
+                            dp[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1)
+                    );
+                }
+            }
+        }
+        return dp[a.length()][b.length()];
+    }
+
+    private static void report(String name, long nanos, int queries) {
+        System.out.printf("%-8s %8.3f ms/query (%,d ms total)%n", name, nanos / 1e6 / queries, nanos / 1_000_000);
+    }
+
+    private static String randomWord(Random random) {
+        int length = 3 + random.nextInt(10);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(LETTERS.charAt(random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    // Apply random substitutions, insertions and deletions
+    private static String misspell(String word, int edits, Random random) {
+        StringBuilder result = new StringBuilder(word);
+        for (int e = 0; e < edits; e++) {
+            int kind = result.length() <= 1 ? 1 : random.nextInt(3);
+            char c = LETTERS.charAt(random.nextInt(26));
+            if (kind == 0) {
+                result.setCharAt(random.nextInt(result.length()), c);
+            } else if (kind == 1) {
+                result.insert(random.nextInt(result.length() + 1), c);
+            } else {
+                result.deleteCharAt(random.nextInt(result.length()));
+            }
+        }
+        return result.toString();
+    }
+}
@@ -1,39 +1,83 @@
 package org.example;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 public class SpellChecker {
 
+    // Completions listed for a prefix, most frequent first
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // System property choosing the correction engine: "bktree" (default) or "symspell"
+    public static final String ENGINE_PROPERTY = "spellchecker.engine";
+
+    public enum Engine {
+        // Exact nearest word by edit distance, ties alphabetical
+        BK_TREE,
+        // Hash lookups of deletes; nearest word within two edits, ties by frequency.
+        // Words further away fall back to the BK-tree.
+        SYMSPELL;
+
+        public static Engine fromName(String name) {
+            if (name == null || name.isBlank() || name.equalsIgnoreCase("bktree")) {
+                return BK_TREE;
+            }
+            if (name.equalsIgnoreCase("symspell")) {
+                return SYMSPELL;
+            }
+            throw new IllegalArgumentException("Unknown spell checker engine: " + name);
+        }
+    }
+
     private final VocabularyLoader vocabularyLoader;
+    private final Engine engine;
 
-    // Constructor that accepts a VocabularyLoader instance
+    // Constructor that accepts a VocabularyLoader instance; the engine comes from ENGINE_PROPERTY
     public SpellChecker(VocabularyLoader loader) {
+        this(loader, Engine.fromName(System.getProperty(ENGINE_PROPERTY)));
+    }
+
+    public SpellChecker(VocabularyLoader loader, Engine engine) {
         this.vocabularyLoader = loader;
+        this.engine = engine;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    // Build the indexes this engine corrects with, so that the first check does not pay for them.
+    // The SymSpell delete index is not part of the SpellIndex file and takes seconds to build
+    // for a large vocabulary, so call this off the EDT.
+    public void warmUp() {
+        vocabularyLoader.getCompletionTrie();
+        vocabularyLoader.getWordTree();
+        if (engine == Engine.SYMSPELL) {
+            vocabularyLoader.getSymSpellIndex();
+        }
     }
 
     // Method to spell-check and suggest corrections for an input word
     public String spellCheckAndSuggest(String input) {
-        Set<String> vocabulary = vocabularyLoader.getVocabulary();
-        List<String> suggestions = new ArrayList<>();
+        List<String> suggestions;
         String closestMatch = null;
-        int minDistance = Integer.MAX_VALUE;
 
         // Check if the word exists in the vocabulary
-        boolean isCorrect = vocabulary.contains(input.toLowerCase());
+        boolean isCorrect = isCorrect(input);
 
         if (!isCorrect) {
             // If the word is incorrect, provide suggestions and closest match
-            for (String word : vocabulary) {
-                if (word.startsWith(input.toLowerCase())) {
-                    suggestions.add(word);
-                }
-                int distance = levenshteinDistance(input.toLowerCase(), word);
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    closestMatch = word;
-                }
+            CompletionTrie trie = vocabularyLoader.getCompletionTrie();
+            Lock lock = vocabularyLoader.readLock();
+            lock.lock();
+            try {
+                suggestions = trie.topCompletions(input.toLowerCase(), MAX_SUGGESTIONS);
+            } finally {
+                lock.unlock();
+            }
+            // The closest match is only shown without prefix matches
+            if (suggestions.isEmpty()) {
+                closestMatch = closestWord(input);
             }
 
             // Build the result as a string
@@ -58,24 +102,55 @@ public class SpellChecker {
         }
     }
 
-    // Calculate the Levenshtein distance between two words
-    private int levenshteinDistance(String a, String b) {
-        int[][] dp = new int[a.length() + 1][b.length() + 1];
-
-        for (int i = 0; i <= a.length(); i++) {
-            for (int j = 0; j <= b.length(); j++) {
-                if (i == 0) {
-                    dp[i][j] = j;
-                } else if (j == 0) {
-                    dp[i][j] = i;
-                } else {
-                    dp[i][j] = Math.min(
-                            Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                            dp[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1)
-                    );
+    // True when the word is in the vocabulary, ignoring case
+    public boolean isCorrect(String word) {
+        return vocabularyLoader.contains(word.toLowerCase());
+    }
+
+    // Nearest vocabulary word to the input, or null for an empty vocabulary
+    public String closestWord(String input) {
+        String word = input.toLowerCase();
+        Lock lock = vocabularyLoader.readLock();
+        if (engine == Engine.SYMSPELL) {
+            SymSpellIndex index = vocabularyLoader.getSymSpellIndex();
+            lock.lock();
+            try {
+                String closest = index.closest(word);
+                if (closest != null) {
+                    return closest;
                 }
+            } finally {
+                lock.unlock();
             }
         }
-        return dp[a.length()][b.length()];
+        BKTree tree = vocabularyLoader.getWordTree();
+        lock.lock();
+        try {
+            return tree.closest(word);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Every vocabulary word within maxDistance edits of the input
+    public List<String> wordsWithinDistance(String input, int maxDistance) {
+        String word = input.toLowerCase();
+        Lock lock = vocabularyLoader.readLock();
+        if (engine == Engine.SYMSPELL && maxDistance <= SymSpellIndex.DEFAULT_MAX_EDIT_DISTANCE) {
+            SymSpellIndex index = vocabularyLoader.getSymSpellIndex();
+            lock.lock();
+            try {
+                return index.lookup(word, maxDistance, Integer.MAX_VALUE);
+            } finally {
+                lock.unlock();
+            }
+        }
+        BKTree tree = vocabularyLoader.getWordTree();
+        lock.lock();
+        try {
+            return tree.withinDistance(word, maxDistance);
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -0,0 +1,246 @@
+package org.example;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+
+// On-disk copy of the spell-check structures built from the catalog: the vocabulary with its
+// word frequencies, the BK-tree links and the completion trie nodes.
+//
+// Layout (big-endian), every section a flat array so that loading is a few bulk copies out of
+// a memory mapping:
+//   header      magic, format version, source CSV size and modification time, word count, byte
+//               length of the word heap, trie node and word counts
+//   words       in BK-tree node order: an int[wordCount + 1] offset table, the UTF-8 bytes of
+//               every word, then int[wordCount] frequencies
+//   BK-tree     edge, first child and next sibling arrays
+//   trie        label, parent, first child, next sibling, frequency and subtree maximum arrays
+//
+// The SymSpell delete index is not stored: it keeps every delete of up to two characters of
+// every word, dozens of entries per word. A loaded vocabulary builds it on first use, which
+// takes seconds for tens of thousands of words, so callers using the SymSpell engine build it
+// ahead of time with SpellChecker.warmUp, off the EDT.
+//
+// The index is tied to the catalog by its size and modification time, the same rule and
+// CatalogSnapshot.lastModified that the catalog snapshot uses, so checking it never reads the CSV.
+public class SpellIndex {
+
+    public static final String SUFFIX = ".spellindex";
+
+    private static final int MAGIC = 0x43435349; // "CCSI"
+    // Version 2: freshness by modification time instead of a CRC32 of the CSV
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+
+    private SpellIndex() {
+    }
+
+    // Vocabulary for the catalog, read from a current index or built from the cards and saved
+    public static VocabularyLoader loadVocabulary(String csvFile, CardStore cards) throws IOException {
+        Path csvPath = Paths.get(csvFile);
+        Path indexPath = indexPathFor(csvPath);
+        long modified = CatalogSnapshot.lastModified(csvPath);
+
+        if (Files.isRegularFile(indexPath)) {
+            try {
+                VocabularyLoader loader = read(indexPath, Files.size(csvPath), modified);
+                if (loader != null) {
+                    return loader;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Damage the checks miss can still surface as a runtime exception; rebuild then too
+                System.out.println("Ignoring unreadable spell index " + indexPath + ": " + e.getMessage());
+            }
+        }
+
+        VocabularyLoader loader = new VocabularyLoader();
+        loader.loadVocabularyFromCardStore(cards, ForkJoinPool.commonPool());
+        try {
+            write(indexPath, loader, Files.size(csvPath), modified);
+        } catch (IOException e) {
+            // The index only speeds up startup; the vocabulary is already built
+            System.out.println("Could not write spell index " + indexPath + ": " + e.getMessage());
+        }
+        return loader;
+    }
+
+    public static Path indexPathFor(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + SUFFIX);
+    }
+
+    // Write the loader's structures, tagged with the size and modification time of the catalog file
+    public static void write(Path indexPath, VocabularyLoader loader, long sourceSize, long sourceModified) throws IOException {
+        BKTree tree = loader.getWordTree();
+        CompletionTrie trie = loader.getCompletionTrie();
+        // Hold the vocabulary still while it is written
+        Lock lock = loader.readLock();
+        lock.lock();
+        try {
+            write(indexPath, loader.getTerms(), tree, trie, sourceSize, sourceModified);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void write(Path indexPath, TermDictionary terms, BKTree tree, CompletionTrie trie,
+                              long sourceSize, long sourceModified) throws IOException {
+        if (tree.nodeCount() != tree.size()) {
+            // Words were removed since the tree was built; store a tree of the live words only
+            tree = new BKTree(terms.asSet());
+        }
+        int wordCount = tree.size();
+        byte[][] encoded = new byte[wordCount][];
+        long heapLength = 0;
+        for (int node = 0; node < wordCount; node++) {
+            encoded[node] = tree.wordAt(node).getBytes(StandardCharsets.UTF_8);
+            heapLength += encoded[node].length;
+        }
+        if (heapLength > Integer.MAX_VALUE) {
+            throw new IOException("Vocabulary too large for a spell index");
+        }
+
+        Path tempPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+            out.writeInt(wordCount);
+            out.writeInt((int) heapLength);
+            out.writeInt(trie.nodeCount());
+            out.writeInt(trie.size());
+
+            int offset = 0;
+            for (byte[] word : encoded) {
+                out.writeInt(offset);
+                offset += word.length;
+            }
+            out.writeInt(offset);
+            for (byte[] word : encoded) {
+                out.write(word);
+            }
+            for (int node = 0; node < wordCount; node++) {
+                out.writeInt(terms.getCount(tree.wordAt(node)));
+            }
+            tree.writeLinks(out);
+            trie.write(out);
+        }
+        try {
+            Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // The stored vocabulary, or null when the index was built from a different catalog or format
+    public static VocabularyLoader read(Path indexPath, long sourceSize, long sourceModified) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Spell index larger than 2 GB");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a spell index");
+            }
+            if (buffer.getInt(4) != FORMAT_VERSION || buffer.getLong(8) != sourceSize || buffer.getLong(16) != sourceModified) {
+                return null;
+            }
+            int wordCount = buffer.getInt(24);
+            int heapLength = buffer.getInt(28);
+            int trieNodes = buffer.getInt(32);
+            int trieWords = buffer.getInt(36);
+            long expected = HEADER_SIZE + 4L * (wordCount + 1) + heapLength + 16L * wordCount + 22L * trieNodes;
+            if (wordCount < 0 || heapLength < 0 || trieNodes < 1 || expected != buffer.capacity()) {
+                throw new IOException("Truncated or corrupt spell index");
+            }
+
+            buffer.position(HEADER_SIZE);
+            int[] offsets = readInts(buffer, wordCount + 1);
+            checkOffsets(offsets, heapLength);
+            byte[] heap = new byte[heapLength];
+            buffer.get(heap);
+            String[] words = new String[wordCount];
+            for (int i = 0; i < wordCount; i++) {
+                words[i] = new String(heap, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+            }
+            int[] frequencies = readInts(buffer, wordCount);
+            int[] edge = readInts(buffer, wordCount);
+            int[] treeFirstChild = readInts(buffer, wordCount);
+            int[] treeNextSibling = readInts(buffer, wordCount);
+            checkTree(null, treeFirstChild, treeNextSibling, wordCount);
+            BKTree tree = BKTree.fromLinks(words, edge, treeFirstChild, treeNextSibling);
+
+            char[] labels = new char[trieNodes];
+            buffer.asCharBuffer().get(labels);
+            buffer.position(buffer.position() + 2 * trieNodes);
+            int[] parent = readInts(buffer, trieNodes);
+            int[] trieFirstChild = readInts(buffer, trieNodes);
+            int[] trieNextSibling = readInts(buffer, trieNodes);
+            checkTree(parent, trieFirstChild, trieNextSibling, trieNodes);
+            CompletionTrie trie = CompletionTrie.fromNodes(labels, parent, trieFirstChild, trieNextSibling,
+                    readInts(buffer, trieNodes), readInts(buffer, trieNodes), trieWords);
+
+            VocabularyLoader loader = new VocabularyLoader();
+            loader.restore(words, frequencies, tree, trie);
+            return loader;
+        }
+    }
+
+    // Word boundaries start at 0, never decrease and end at the heap length
+    private static void checkOffsets(int[] offsets, int heapLength) throws IOException {
+        if (offsets[0] != 0 || offsets[offsets.length - 1] != heapLength) {
+            throw new IOException("Truncated or corrupt spell index");
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            if (offsets[i] < offsets[i - 1]) {
+                throw new IOException("Truncated or corrupt spell index");
+            }
+        }
+    }
+
+    // Every link is -1 or a node, and the links from node 0 form a tree: no node is reached
+    // twice, so walking the children always ends. For the trie, each child names its parent.
+    private static void checkTree(int[] parent, int[] firstChild, int[] nextSibling, int nodeCount)
+            throws IOException {
+        for (int node = 0; node < nodeCount; node++) {
+            if (!isLink(firstChild[node], nodeCount) || !isLink(nextSibling[node], nodeCount)
+                    || (parent != null && !isLink(parent[node], nodeCount))) {
+                throw new IOException("Truncated or corrupt spell index");
+            }
+        }
+        if (nodeCount == 0) {
+            return;
+        }
+        boolean[] reached = new boolean[nodeCount];
+        int[] pending = new int[nodeCount];
+        int pendingCount = 0;
+        reached[0] = true;
+        pending[pendingCount++] = 0;
+        while (pendingCount > 0) {
+            int node = pending[--pendingCount];
+            for (int child = firstChild[node]; child != -1; child = nextSibling[child]) {
+                if (reached[child] || (parent != null && parent[child] != node)) {
+                    throw new IOException("Truncated or corrupt spell index");
+                }
+                reached[child] = true;
+                pending[pendingCount++] = child;
+            }
+        }
+    }
+
+    private static boolean isLink(int value, int nodeCount) {
+        return value == -1 || (value >= 0 && value < nodeCount);
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+}
@@ -0,0 +1,205 @@
+package org.example;
+
+import java.util.*;
+
+// Symmetric-delete spelling index (SymSpell).
+// Every vocabulary word is stored under each string obtained by deleting up to maxEditDistance
+// of its characters. Two words within d edits of each other share such a delete, so the
+// candidates for a query are found by hashing the query's own deletes instead of comparing it
+// with every word; only those candidates get a full edit distance check.
+// Results are ranked by edit distance, then by frequency, then alphabetically.
+public class SymSpellIndex {
+
+    public static final int DEFAULT_MAX_EDIT_DISTANCE = 2;
+
+    private final int maxEditDistance;
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private String[] words = new String[16];
+    private int[] frequencies = new int[16];
+    private int wordCount;      // Indexed words, including those whose frequency dropped to 0
+    private int liveCount;
+    // Delete -> ids of the words it was derived from; element 0 holds the number of ids
+    private final Map<String, int[]> deletes = new HashMap<>();
+
+    public SymSpellIndex(int maxEditDistance) {
+        if (maxEditDistance < 0) {
+            throw new IllegalArgumentException("Negative edit distance: " + maxEditDistance);
+        }
+        this.maxEditDistance = maxEditDistance;
+    }
+
+    public static SymSpellIndex fromTerms(TermDictionary terms, int maxEditDistance) {
+        SymSpellIndex index = new SymSpellIndex(maxEditDistance);
+        for (int id = 0; id < terms.size(); id++) {
+            index.add(terms.getTerm(id), terms.getCount(id));
+        }
+        return index;
+    }
+
+    // Add to a word's frequency, indexing the word if it is new
+    public void add(String word, int delta) {
+        Integer id = wordIds.get(word);
+        if (id != null) {
+            setFrequency(id, Math.max(0, frequencies[id] + delta));
+            return;
+        }
+        if (wordCount == words.length) {
+            words = Arrays.copyOf(words, wordCount * 2);
+            frequencies = Arrays.copyOf(frequencies, wordCount * 2);
+        }
+        id = wordCount++;
+        words[id] = word;
+        frequencies[id] = Math.max(0, delta);
+        if (delta > 0) {
+            liveCount++;
+        }
+        wordIds.put(word, id);
+
+        Set<String> variants = new HashSet<>();
+        collectDeletes(word, maxEditDistance, variants);
+        for (String variant : variants) {
+            int[] ids = deletes.get(variant);
+            if (ids == null) {
+                ids = new int[2];
+            } else if (ids[0] + 1 == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[++ids[0]] = id;
+            deletes.put(variant, ids);
+        }
+    }
+
+    // Set a word's frequency; 0 removes it from the results. Its deletes stay indexed, so the
+    // word can come back without being indexed again.
+    public void setFrequency(String word, int newFrequency) {
+        if (newFrequency < 0) {
+            throw new IllegalArgumentException("Negative frequency for " + word);
+        }
+        Integer id = wordIds.get(word);
+        if (id != null) {
+            setFrequency(id, newFrequency);
+        } else if (newFrequency > 0) {
+            add(word, newFrequency);
+        }
+    }
+
+    private void setFrequency(int id, int newFrequency) {
+        if (frequencies[id] == 0 && newFrequency > 0) {
+            liveCount++;
+        } else if (frequencies[id] > 0 && newFrequency == 0) {
+            liveCount--;
+        }
+        frequencies[id] = newFrequency;
+    }
+
+    public int getFrequency(String word) {
+        Integer id = wordIds.get(word);
+        return id == null ? 0 : frequencies[id];
+    }
+
+    // Words with a frequency above 0
+    public int size() {
+        return liveCount;
+    }
+
+    public int getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
+    // Best correction within the index's edit distance, or null when there is none
+    public String closest(String input) {
+        List<String> best = lookup(input, maxEditDistance, 1);
+        return best.isEmpty() ? null : best.get(0);
+    }
+
+    // Up to limit words within maxDistance edits of the input, best first
+    public List<String> lookup(String input, int maxDistance, int limit) {
+        if (maxDistance > maxEditDistance) {
+            throw new IllegalArgumentException("Index was built for distance " + maxEditDistance + ", not " + maxDistance);
+        }
+        EditDistance kernel = EditDistance.get();
+        List<Candidate> found = new ArrayList<>();
+        Set<Integer> checked = new HashSet<>();
+        Set<String> seen = new HashSet<>();
+        seen.add(input);
+        List<String> level = Collections.singletonList(input);
+        // Words reached from a delete of the input at depth n are at least n edits away, so with
+        // a single result wanted the search stops below the best distance found so far
+        int bound = maxDistance;
+        for (int depth = 0; depth <= bound && !level.isEmpty(); depth++) {
+            for (String variant : level) {
+                int[] ids = deletes.get(variant);
+                if (ids == null) {
+                    continue;
+                }
+                for (int i = 1; i <= ids[0]; i++) {
+                    int id = ids[i];
+                    if (frequencies[id] == 0 || !checked.add(id)
+                            || Math.abs(words[id].length() - input.length()) > bound) {
+                        continue;
+                    }
+                    int distance = kernel.distance(input, words[id], bound);
+                    if (distance <= bound) {
+                        found.add(new Candidate(words[id], distance, frequencies[id]));
+                        if (limit == 1) {
+                            bound = distance;
+                        }
+                    }
+                }
+            }
+            if (depth < bound) {
+                List<String> next = new ArrayList<>();
+                for (String variant : level) {
+                    for (int i = 0; i < variant.length(); i++) {
+                        String shorter = variant.substring(0, i) + variant.substring(i + 1);
+                        if (seen.add(shorter)) {
+                            next.add(shorter);
+                        }
+                    }
+                }
+                level = next;
+            }
+        }
+
+        found.sort(null);
+        List<String> result = new ArrayList<>(Math.min(limit, found.size()));
+        for (int i = 0; i < found.size() && result.size() < limit; i++) {
+            if (found.get(i).distance <= bound) {
+                result.add(found.get(i).word);
+            }
+        }
+        return result;
+    }
+
+    private static void collectDeletes(String word, int edits, Set<String> variants) {
+        if (!variants.add(word) || edits == 0) {
+            return;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            collectDeletes(word.substring(0, i) + word.substring(i + 1), edits - 1, variants);
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        final String word;
+        final int distance;
+        final int frequency;
+
+        Candidate(String word, int distance, int frequency) {
+            this.word = word;
+            this.distance = distance;
+            this.frequency = frequency;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (distance != other.distance) {
+                return Integer.compare(distance, other.distance);
+            }
+            if (frequency != other.frequency) {
+                return Integer.compare(other.frequency, frequency);
+            }
+            return word.compareTo(other.word);
+        }
+    }
+}
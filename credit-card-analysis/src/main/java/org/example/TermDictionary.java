@@ -0,0 +1,489 @@
+package org.example;
+
+import java.util.*;
+
+// Term -> dense int id dictionary with a count per term.
+// The characters of every term are stored back to back in one char arena, and the hash table is
+// an int[] of ids probed linearly, so there is one String-free entry per term: no key objects,
+// no boxed counts, no per-entry nodes. Terms can be looked up straight from a tokenizer buffer.
+// Ids are assigned in insertion order starting at 0; they only change when a term is removed,
+// which moves the last term into the freed id.
+public class TermDictionary {
+
+    private char[] arena = new char[1024];
+    private int arenaLength;
+    private int[] starts = new int[64];     // Term id occupies arena[starts[id] .. starts[id] + lengths[id])
+    private int[] lengths = new int[64];
+    private int deadChars;                  // Arena characters of removed terms
+    private int[] hashes = new int[64];
+    private int[] counts = new int[64];
+    private int[] table = new int[128];     // id + 1, or 0 for an empty slot; power-of-two size
+    private int size;
+    private long totalCount;
+
+    // Add delta to a term's count, adding the term if it is new. Returns the term id.
+    public int add(char[] chars, int offset, int length, int delta) {
+        return add(chars, offset, length, hash(chars, offset, length), delta);
+    }
+
+    private int add(char[] chars, int offset, int length, int hash, int delta) {
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        for (int entry; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+            int id = entry - 1;
+            if (hashes[id] == hash && equals(id, chars, offset, length)) {
+                counts[id] += delta;
+                totalCount += delta;
+                return id;
+            }
+        }
+        int id = append(chars, offset, length, hash, delta);
+        table[slot] = id + 1;
+        if (2 * size > table.length) {
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    // Add every term of another dictionary with its count, in the other dictionary's id order.
+    // Merging per-chunk dictionaries in chunk order gives the same ids and counts as adding all
+    // the chunks' words to one dictionary.
+    public void addAll(TermDictionary other) {
+        for (int id = 0; id < other.size; id++) {
+            add(other.arena, other.starts[id], other.lengths[id], other.hashes[id], other.counts[id]);
+        }
+    }
+
+    public int add(CharSequence term, int delta) {
+        int id = getId(term);
+        if (id >= 0) {
+            counts[id] += delta;
+            totalCount += delta;
+            return id;
+        }
+        char[] chars = new char[term.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = term.charAt(i);
+        }
+        return add(chars, 0, chars.length, delta);
+    }
+
+    // Term id, or -1 when the term was never added
+    public int getId(char[] chars, int offset, int length) {
+        int hash = hash(chars, offset, length);
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask, entry; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+            int id = entry - 1;
+            if (hashes[id] == hash && equals(id, chars, offset, length)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    public int getId(CharSequence term) {
+        int hash = 0;
+        for (int i = 0; i < term.length(); i++) {
+            hash = 31 * hash + term.charAt(i);
+        }
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask, entry; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+            int id = entry - 1;
+            if (hashes[id] == hash && equals(id, term)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(CharSequence term) {
+        return getId(term) >= 0;
+    }
+
+    public int getCount(int id) {
+        checkId(id);
+        return counts[id];
+    }
+
+    // 0 for an unknown term
+    public int getCount(CharSequence term) {
+        int id = getId(term);
+        return id < 0 ? 0 : counts[id];
+    }
+
+    public void setCount(int id, int count) {
+        checkId(id);
+        totalCount += count - counts[id];
+        counts[id] = count;
+    }
+
+    public String getTerm(int id) {
+        checkId(id);
+        return new String(arena, starts[id], lengths[id]);
+    }
+
+    public int getTermLength(int id) {
+        checkId(id);
+        return lengths[id];
+    }
+
+    // Remove a term. The last term moves into the freed id so ids stay dense; returns the old id
+    // of the moved term, or -1 when the removed term was the last one.
+    public int remove(int id) {
+        checkId(id);
+        deleteSlot(slotOf(id));
+        totalCount -= counts[id];
+        deadChars += lengths[id];
+        int last = --size;
+        int moved = -1;
+        if (id != last) {
+            table[slotOf(last)] = id + 1;
+            starts[id] = starts[last];
+            lengths[id] = lengths[last];
+            hashes[id] = hashes[last];
+            counts[id] = counts[last];
+            moved = last;
+        }
+        if (deadChars > 1024 && deadChars > arenaLength / 2) {
+            compactArena();
+        }
+        return moved;
+    }
+
+    // Ids of the k highest counts, highest first; ties go to the lower id. A bounded min-heap
+    // keeps the best k seen so far, so this costs O(n log k) instead of a full sort.
+    public int[] topIds(int k) {
+        k = Math.min(k, size);
+        int[] heap = new int[Math.max(k, 0)];
+        int heapSize = 0;
+        for (int id = 0; id < size && k > 0; id++) {
+            if (heapSize < k) {
+                heap[heapSize] = id;
+                siftUp(heap, heapSize++);
+            } else if (ranksBefore(id, heap[0])) {
+                heap[0] = id;
+                siftDown(heap, heapSize);
+            }
+        }
+        // Pop the min-heap from the back so the best id comes first
+        int[] ids = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ids[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i);
+        }
+        return ids;
+    }
+
+    private boolean ranksBefore(int a, int b) {
+        return counts[a] > counts[b] || (counts[a] == counts[b] && a < b);
+    }
+
+    // Min-heap ordered by rank: the root is the worst id kept so far
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(heap[parent], heap[index])) {
+                break;
+            }
+            int id = heap[parent];
+            heap[parent] = heap[index];
+            heap[index] = id;
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < heapSize && ranksBefore(heap[left], heap[right])) {
+                worst = right;
+            }
+            if (!ranksBefore(heap[index], heap[worst])) {
+                return;
+            }
+            int id = heap[index];
+            heap[index] = heap[worst];
+            heap[worst] = id;
+            index = worst;
+        }
+    }
+
+    // Remove every term, keeping the allocated arrays for reuse
+    public void clear() {
+        Arrays.fill(table, 0);
+        arenaLength = 0;
+        deadChars = 0;
+        size = 0;
+        totalCount = 0;
+    }
+
+    // Number of distinct terms
+    public int size() {
+        return size;
+    }
+
+    // Sum of all counts
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    // Bytes held by the arrays behind the dictionary
+    public long getMemoryBytes() {
+        return 2L * arena.length + 4L * (starts.length + lengths.length + hashes.length + counts.length + table.length);
+    }
+
+    // A reusable read-only view of one term at a time, to pass terms to CharSequence code such as
+    // EditDistance without creating Strings. Not thread-safe; create one view per thread.
+    public TermView newView() {
+        return new TermView();
+    }
+
+    public final class TermView implements CharSequence {
+        private int start;
+        private int length;
+
+        public TermView moveTo(int id) {
+            checkId(id);
+            start = starts[id];
+            length = lengths[id];
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index " + index + " of " + length);
+            }
+            return arena[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return new String(arena, start, length);
+        }
+    }
+
+    // Read-only Set view of the terms for code written against collections; iterating creates
+    // a String per term
+    public Set<String> asSet() {
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof CharSequence && getId((CharSequence) o) >= 0;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new TermIterator<>() {
+                    @Override
+                    String element(int id) {
+                        return getTerm(id);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Read-only Map view of term -> count
+    public Map<String, Integer> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public Integer get(Object key) {
+                int id = key instanceof CharSequence ? getId((CharSequence) key) : -1;
+                return id < 0 ? null : counts[id];
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof CharSequence && getId((CharSequence) key) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Set<Map.Entry<String, Integer>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Map.Entry<String, Integer>> iterator() {
+                        return new TermIterator<>() {
+                            @Override
+                            Map.Entry<String, Integer> element(int id) {
+                                return new AbstractMap.SimpleImmutableEntry<>(getTerm(id), counts[id]);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            }
+        };
+    }
+
+    private abstract class TermIterator<T> implements Iterator<T> {
+        private int next;
+
+        abstract T element(int id);
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public T next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            return element(next++);
+        }
+    }
+
+    private int append(char[] chars, int offset, int length, int hash, int count) {
+        if (arenaLength + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaLength + length));
+        }
+        if (size == hashes.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        System.arraycopy(chars, offset, arena, arenaLength, length);
+        arenaLength += length;
+        int id = size++;
+        starts[id] = arenaLength - length;
+        lengths[id] = length;
+        hashes[id] = hash;
+        counts[id] = count;
+        totalCount += count;
+        return id;
+    }
+
+    private void rehash(int capacity) {
+        int[] newTable = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id + 1;
+        }
+        table = newTable;
+    }
+
+    // Table slot holding the given id
+    private int slotOf(int id) {
+        int mask = table.length - 1;
+        int slot = spread(hashes[id]) & mask;
+        while (table[slot] != id + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Empty a slot, shifting later entries of the probe run back so every entry stays reachable
+    // from its home slot without tombstones
+    private void deleteSlot(int hole) {
+        int mask = table.length - 1;
+        for (int slot = (hole + 1) & mask, entry; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+            int home = spread(hashes[entry - 1]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                table[hole] = entry;
+                hole = slot;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    // Copy the live terms into a fresh arena in id order
+    private void compactArena() {
+        char[] compacted = new char[Math.max(1024, (arenaLength - deadChars) * 2)];
+        int length = 0;
+        for (int id = 0; id < size; id++) {
+            System.arraycopy(arena, starts[id], compacted, length, lengths[id]);
+            starts[id] = length;
+            length += lengths[id];
+        }
+        arena = compacted;
+        arenaLength = length;
+        deadChars = 0;
+    }
+
+    private boolean equals(int id, char[] chars, int offset, int length) {
+        int start = starts[id];
+        if (lengths[id] != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (arena[start + i] != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean equals(int id, CharSequence term) {
+        int start = starts[id];
+        int length = term.length();
+        if (lengths[id] != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (arena[start + i] != term.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same value as String.hashCode
+    private static int hash(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        return hash;
+    }
+
+    // Mix the high bits in, since the table index uses only the low bits
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Term id " + id + " of " + size);
+        }
+    }
+}
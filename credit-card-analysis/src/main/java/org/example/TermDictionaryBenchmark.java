@@ -0,0 +1,114 @@
+package org.example;
+
+import java.util.*;
+
+// Vocabulary counting: the former HashSet<String> + HashMap<String, Integer> pair against
+// TermDictionary, over a synthetic corpus with a Zipf-like word distribution.
+// Reports build time, memory retained after a full GC, and lookup throughput.
+// Usage: TermDictionaryBenchmark [distinctWords] [tokens] [rounds]
+public class TermDictionaryBenchmark {
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    public static void main(String[] args) {
+        int distinctWords = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int tokenCount = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        Random random = new Random(42);
+
+        String[] pool = new String[distinctWords];
+        for (int i = 0; i < distinctWords; i++) {
+            pool[i] = randomWord(random);
+        }
+        char[] corpus = corpus(pool, tokenCount, random);
+        String[] queries = new String[1_000_000];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = pool[zipf(distinctWords, random)];
+        }
+        System.out.printf("Corpus: %,d tokens, %,d chars, pool of %,d words%n", tokenCount, corpus.length, distinctWords);
+
+        for (int round = 1; round <= rounds; round++) {
+            long before = usedMemory();
+            long start = System.nanoTime();
+            Set<String> vocabulary = new HashSet<>();
+            Map<String, Integer> frequencies = new HashMap<>();
+            Tokenizer.get().tokenize(corpus, 0, corpus.length, (word, length) -> {
+                String term = new String(word, 0, length);
+                vocabulary.add(term);
+                frequencies.merge(term, 1, Integer::sum);
+            });
+            long mapBuildNanos = System.nanoTime() - start;
+            long mapBytes = usedMemory() - before;
+
+            start = System.nanoTime();
+            long mapSum = 0;
+            for (String query : queries) {
+                mapSum += frequencies.getOrDefault(query, 0);
+            }
+            long mapLookupNanos = System.nanoTime() - start;
+            int mapSize = frequencies.size();
+            vocabulary.clear();
+            frequencies.clear();
+
+            before = usedMemory();
+            start = System.nanoTime();
+            TermDictionary terms = new TermDictionary();
+            Tokenizer.get().tokenize(corpus, 0, corpus.length, (word, length) -> terms.add(word, 0, length, 1));
+            long dictionaryBuildNanos = System.nanoTime() - start;
+            long dictionaryBytes = usedMemory() - before;
+
+            start = System.nanoTime();
+            long dictionarySum = 0;
+            for (String query : queries) {
+                dictionarySum += terms.getCount(query);
+            }
+            long dictionaryLookupNanos = System.nanoTime() - start;
+
+            if (terms.size() != mapSize || dictionarySum != mapSum) {
+                throw new IllegalStateException("Dictionary and map disagree");
+            }
+            System.out.printf("Round %d: %,d terms%n", round, terms.size());
+            report("HashMap", mapBuildNanos, tokenCount, mapBytes, mapLookupNanos, queries.length);
+            report("TermDictionary", dictionaryBuildNanos, tokenCount, dictionaryBytes, dictionaryLookupNanos, queries.length);
+            System.out.printf("  %-15s %,d array bytes%n", "", terms.getMemoryBytes());
+        }
+    }
+
+    private static void report(String name, long buildNanos, int tokens, long bytes, long lookupNanos, int lookups) {
+        System.out.printf("  %-15s build %5d ms (%,.0f tokens/s), retained %,6d KB, lookup %6.1f ns%n",
+                name, buildNanos / 1_000_000, tokens / (buildNanos / 1e9), bytes >> 10, (double) lookupNanos / lookups);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Space-separated words drawn with a Zipf-like skew, so a few words are very frequent
+    private static char[] corpus(String[] pool, int tokens, Random random) {
+        StringBuilder text = new StringBuilder(tokens * 8);
+        for (int i = 0; i < tokens; i++) {
+            text.append(pool[zipf(pool.length, random)]).append(' ');
+        }
+        char[] chars = new char[text.length()];
+        text.getChars(0, chars.length, chars, 0);
+        return chars;
+    }
+
+    // Rank in [0, n) with probability falling off roughly as 1 / rank
+    private static int zipf(int n, Random random) {
+        return (int) Math.min(n - 1, Math.exp(random.nextDouble() * Math.log(n + 1)) - 1);
+    }
+
+    private static String randomWord(Random random) {
+        int length = 3 + random.nextInt(10);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Hand-written word scanner shared by vocabulary building, the search indexes and page ranking.
+// Text is split on whitespace (the characters of the regex class \s), each token keeps only its
+// ASCII letters and digits, lower-cased: the same words as the former
+// split("\\s+") / replaceAll("[^a-zA-Z0-9]", "") / toLowerCase() chain. The characters are
+// scanned once and each word is normalized into a reusable buffer handed to a sink, so no
+// String, array or regex matcher is created per word.
+public final class Tokenizer {
+
+    private static final ThreadLocal<Tokenizer> LOCAL = ThreadLocal.withInitial(Tokenizer::new);
+
+    // Receives each word; the buffer is reused for the next word, so copy what must be kept
+    public interface WordSink {
+        void accept(char[] word, int length);
+    }
+
+    private char[] word = new char[32];
+
+    private Tokenizer() {
+    }
+
+    // The calling thread's tokenizer; a sink must not use it again while it is tokenizing
+    public static Tokenizer get() {
+        return LOCAL.get();
+    }
+
+    // Returns the number of words
+    public int tokenize(CharSequence text, WordSink sink) {
+        if (text == null) {
+            return 0;
+        }
+        int words = 0;
+        int length = 0;
+        int end = text.length();
+        for (int i = 0; i <= end; i++) {
+            char c = i < end ? text.charAt(i) : ' ';
+            if (isSpace(c)) {
+                if (length > 0) {
+                    sink.accept(word, length);
+                    words++;
+                    length = 0;
+                }
+            } else if (isAsciiLetterOrDigit(c)) {
+                if (length == word.length) {
+                    word = Arrays.copyOf(word, length * 2);
+                }
+                word[length++] = toLowerAscii(c);
+            }
+        }
+        return words;
+    }
+
+    // Same as tokenize(CharSequence) over a range of a char array
+    public int tokenize(char[] chars, int offset, int count, WordSink sink) {
+        int words = 0;
+        int length = 0;
+        int end = offset + count;
+        for (int i = offset; i <= end; i++) {
+            char c = i < end ? chars[i] : ' ';
+            if (isSpace(c)) {
+                if (length > 0) {
+                    sink.accept(word, length);
+                    words++;
+                    length = 0;
+                }
+            } else if (isAsciiLetterOrDigit(c)) {
+                if (length == word.length) {
+                    word = Arrays.copyOf(word, length * 2);
+                }
+                word[length++] = toLowerAscii(c);
+            }
+        }
+        return words;
+    }
+
+    // The words of a text as Strings, for callers that keep them
+    public static List<String> words(CharSequence text) {
+        List<String> words = new ArrayList<>();
+        get().tokenize(text, (word, length) -> words.add(new String(word, 0, length)));
+        return words;
+    }
+
+    // The characters of the regex class \s
+    public static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    public static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    public static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    // The regex class \w
+    private static boolean isWordChar(char c) {
+        return isAsciiLetterOrDigit(c) || c == '_';
+    }
+
+    // Same count as line.split("\\W+").length without the regex or the array: the runs of word
+    // characters, plus the empty leading piece split returns when the line starts with a
+    // separator, and 1 for an empty line
+    public static int countSplitWords(CharSequence line) {
+        int length = line.length();
+        if (length == 0) {
+            return 1;
+        }
+        int runs = 0;
+        boolean inWord = false;
+        for (int i = 0; i < length; i++) {
+            boolean wordChar = isWordChar(line.charAt(i));
+            if (wordChar && !inWord) {
+                runs++;
+            }
+            inWord = wordChar;
+        }
+        return runs > 0 && !isWordChar(line.charAt(0)) ? runs + 1 : runs;
+    }
+}
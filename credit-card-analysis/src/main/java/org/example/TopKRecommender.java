@@ -0,0 +1,270 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Scored "best K" recommendations over a filtered result.
+// Each candidate is scored once from its annual fee, APR and rewards keyword relevance, and the
+// best K are kept in a bounded min-heap, so a page costs O(n log K) instead of a full sort.
+// The page carries a cursor holding the computed scores; the next page selects the following K
+// from those scores without rescoring the catalog.
+public class TopKRecommender {
+
+    // Relative importance of each scoring component; all components are scaled to [0, 1]
+    public static final class Weights {
+        public static final Weights DEFAULT = new Weights(1.0, 1.0, 2.0);
+
+        private final double feeWeight;
+        private final double rateWeight;
+        private final double relevanceWeight;
+
+        public Weights(double feeWeight, double rateWeight, double relevanceWeight) {
+            this.feeWeight = feeWeight;
+            this.rateWeight = rateWeight;
+            this.relevanceWeight = relevanceWeight;
+        }
+
+        public double getFeeWeight() {
+            return feeWeight;
+        }
+
+        public double getRateWeight() {
+            return rateWeight;
+        }
+
+        public double getRelevanceWeight() {
+            return relevanceWeight;
+        }
+    }
+
+    // Scores computed for one query, shared by all pages of that query
+    public static final class Cursor {
+        private final CardStore store;
+        private final long storeVersion;
+        private final int[] candidates;
+        private final double[] scores;
+        private final int pageSize;
+        private final int returned;
+        // Last entry of the previous page: later pages rank strictly below it
+        private final double lastScore;
+        private final int lastRow;
+
+        private Cursor(CardStore store, long storeVersion, int[] candidates, double[] scores,
+                       int pageSize, int returned, double lastScore, int lastRow) {
+            this.store = store;
+            this.storeVersion = storeVersion;
+            this.candidates = candidates;
+            this.scores = scores;
+            this.pageSize = pageSize;
+            this.returned = returned;
+            this.lastScore = lastScore;
+            this.lastRow = lastRow;
+        }
+
+        public boolean hasMore() {
+            return returned < candidates.length;
+        }
+
+        public int getTotalMatches() {
+            return candidates.length;
+        }
+
+        public int getReturnedSoFar() {
+            return returned;
+        }
+    }
+
+    // One page of ranked rows, best first
+    public static final class Page {
+        private final int[] rows;
+        private final double[] scores;
+        private final Cursor cursor;
+
+        private Page(int[] rows, double[] scores, Cursor cursor) {
+            this.rows = rows;
+            this.scores = scores;
+            this.cursor = cursor;
+        }
+
+        public int[] getRows() {
+            return rows;
+        }
+
+        public double[] getScores() {
+            return scores;
+        }
+
+        public Cursor getCursor() {
+            return cursor;
+        }
+
+        public boolean hasMore() {
+            return cursor.hasMore();
+        }
+
+        public List<CreditCard> toCards() {
+            List<CreditCard> cards = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                cards.add(cursor.store.get(row));
+            }
+            return cards;
+        }
+    }
+
+    private final CardStore store;
+
+    public TopKRecommender(CardStore store) {
+        this.store = store;
+    }
+
+    // Score the matching rows and return the best K
+    public Page firstPage(CardBitmap matches, String rewardsKeyword, int k, Weights weights) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + k);
+        }
+        String keyword = rewardsKeyword == null ? "" : rewardsKeyword.toLowerCase().trim();
+        int[] candidates = matches.toArray();
+        double[] scores = new double[candidates.length];
+
+        // Normalize fees and rates against the largest known values among the candidates
+        double maxFee = 0;
+        double maxRate = 0;
+        for (int row : candidates) {
+            maxFee = Math.max(maxFee, store.getAnnualFee(row));
+            maxRate = Math.max(maxRate, store.getInterestRate(row));
+        }
+        for (int i = 0; i < candidates.length; i++) {
+            scores[i] = score(candidates[i], keyword, maxFee, maxRate, weights);
+        }
+
+        Cursor start = new Cursor(store, store.getVersion(), candidates, scores, k, 0,
+                Double.POSITIVE_INFINITY, -1);
+        return select(start);
+    }
+
+    // The K entries ranked after the cursor's last entry, reusing the stored scores
+    public Page nextPage(Cursor cursor) {
+        if (cursor.store != store || cursor.storeVersion != store.getVersion()) {
+            throw new IllegalStateException("The catalog changed since the first page was computed");
+        }
+        return select(cursor);
+    }
+
+    private Page select(Cursor cursor) {
+        int k = Math.min(cursor.pageSize, cursor.candidates.length - cursor.returned);
+        int[] heapRows = new int[k];
+        double[] heapScores = new double[k];
+        int heapSize = 0;
+
+        for (int i = 0; i < cursor.candidates.length && k > 0; i++) {
+            int row = cursor.candidates[i];
+            double score = cursor.scores[i];
+            if (!ranksBefore(cursor.lastScore, cursor.lastRow, score, row)) {
+                continue; // Already returned on an earlier page
+            }
+            if (heapSize < k) {
+                heapRows[heapSize] = row;
+                heapScores[heapSize] = score;
+                siftUp(heapRows, heapScores, heapSize++);
+            } else if (ranksBefore(score, row, heapScores[0], heapRows[0])) {
+                heapRows[0] = row;
+                heapScores[0] = score;
+                siftDown(heapRows, heapScores, heapSize);
+            }
+        }
+
+        // Pop the min-heap from the back so the page comes out best first
+        int[] rows = new int[heapSize];
+        double[] scores = new double[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            rows[i] = heapRows[0];
+            scores[i] = heapScores[0];
+            heapRows[0] = heapRows[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heapRows, heapScores, i);
+        }
+
+        Cursor next = heapSize == 0 ? cursor : new Cursor(cursor.store, cursor.storeVersion,
+                cursor.candidates, cursor.scores, cursor.pageSize, cursor.returned + heapSize,
+                scores[heapSize - 1], rows[heapSize - 1]);
+        return new Page(rows, scores, next);
+    }
+
+    // Higher score is better; ties go to the earlier catalog row
+    private static boolean ranksBefore(double scoreA, int rowA, double scoreB, int rowB) {
+        return scoreA > scoreB || (scoreA == scoreB && rowA < rowB);
+    }
+
+    // Min-heap ordered by rank: the root is the worst entry kept so far
+    private static void siftUp(int[] rows, double[] scores, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(scores[parent], rows[parent], scores[index], rows[index])) {
+                break;
+            }
+            swap(rows, scores, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] rows, double[] scores, int size) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && ranksBefore(scores[left], rows[left], scores[right], rows[right])) {
+                worst = right;
+            }
+            if (!ranksBefore(scores[index], rows[index], scores[worst], rows[worst])) {
+                return;
+            }
+            swap(rows, scores, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] rows, double[] scores, int i, int j) {
+        int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    // Lower fee and APR score higher; an N/A value scores as the worst known value
+    private double score(int row, String keyword, double maxFee, double maxRate, Weights weights) {
+        double fee = store.getAnnualFee(row);
+        double rate = store.getInterestRate(row);
+        double feePenalty = fee < 0 ? 1 : (maxFee == 0 ? 0 : fee / maxFee);
+        double ratePenalty = rate < 0 ? 1 : (maxRate == 0 ? 0 : rate / maxRate);
+        double relevance = 0;
+        if (!keyword.isEmpty()) {
+            int occurrences = countOccurrences(store.getRewards(row), keyword);
+            relevance = occurrences / (1.0 + occurrences);
+        }
+        return weights.relevanceWeight * relevance
+                - weights.feeWeight * feePenalty
+                - weights.rateWeight * ratePenalty;
+    }
+
+    // Case-insensitive occurrence count without lower-casing the offer text
+    private static int countOccurrences(String text, String lowerCaseKeyword) {
+        if (text == null) {
+            return 0;
+        }
+        int count = 0;
+        int length = lowerCaseKeyword.length();
+        for (int i = 0; i + length <= text.length(); i++) {
+            if (text.regionMatches(true, i, lowerCaseKeyword, 0, length)) {
+                count++;
+                i += length - 1;
+            }
+        }
+        return count;
+    }
+}
@@ -1,38 +1,405 @@
 package org.example;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
 
+// Words of the card catalog with their frequencies, and the spelling indexes built over them.
+// Cards can be added, updated and removed one at a time; the built indexes and the registered
+// listeners are updated in place, and a word is dropped when its frequency reaches 0.
+// Changes take the write lock; code reading getTerms() or the indexes while the vocabulary can
+// change holds readLock().
 public class VocabularyLoader {
 
-    private final Map<String, Integer> frequencyMap = new HashMap<>();
-    private final Set<String> vocabulary = new HashSet<>();
+    // Cards tokenized per task by the parallel load
+    public static final int PARALLEL_CHUNK_ROWS = 4096;
+
+    // Notified of frequency changes so that indexes over the words can update in place
+    public interface Listener {
+        // Called under the write lock after the change. An old frequency of 0 means the word is
+        // new; a new frequency of 0 means it was removed.
+        void frequencyChanged(String word, int oldFrequency, int newFrequency);
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Every word with its frequency; the Set and Map getters are views of it
+    private final TermDictionary terms = new TermDictionary();
+    // Built on first use and shared by every SpellChecker over this vocabulary; once built, the
+    // indexes are kept up to date as words change
+    private volatile BKTree wordTree;
+    private volatile CompletionTrie completionTrie;
+    private volatile SymSpellIndex symSpellIndex;
+    private final List<Listener> listeners = new ArrayList<>();
+    private final Tokenizer.WordSink wordSink = this::addWord;
 
     // Method to load vocabulary and frequency from a list of credit cards
     public void loadVocabularyFromCreditCards(List<CreditCard> cards) {
-        for (CreditCard card : cards) {
-            String[] words = (card.getName() + " " + card.getBankName() + " " + card.getRewards()).split("\\s+");
-            for (String word : words) {
-                String cleanWord = word.replaceAll("[^a-zA-Z0-9]", "").toLowerCase();
-                if (!cleanWord.isEmpty()) {
-                    vocabulary.add(cleanWord);
-                    frequencyMap.put(cleanWord, frequencyMap.getOrDefault(cleanWord, 0) + 1);
+        loadVocabularyFromCardStore(CardStore.of(cards));
+    }
+
+    // Load vocabulary and frequency from the store columns without building per-card objects
+    public void loadVocabularyFromCardStore(CardStore cards) {
+        lock.writeLock().lock();
+        try {
+            for (int row = 0; row < cards.size(); row++) {
+                addWords(cards.getName(row));
+                addWords(cards.getBankName(row));
+                addWords(cards.getRewards(row));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Same words, counts and word order as loadVocabularyFromCardStore(cards), built on the pool:
+    // each chunk of rows is tokenized into its own dictionary and the dictionaries are merged in
+    // chunk order, so first-seen order is kept
+    public void loadVocabularyFromCardStore(CardStore cards, ForkJoinPool pool) {
+        int chunks = (cards.size() + PARALLEL_CHUNK_ROWS - 1) / PARALLEL_CHUNK_ROWS;
+        if (chunks <= 1) {
+            loadVocabularyFromCardStore(cards);
+            return;
+        }
+        TermDictionary loaded = pool.submit(() -> IntStream.range(0, chunks).parallel()
+                .collect(TermDictionary::new, (local, chunk) -> addRows(cards, chunk, local), TermDictionary::addAll))
+                .join();
+        addTerms(loaded);
+    }
+
+    private static void addRows(CardStore cards, int chunk, TermDictionary local) {
+        Tokenizer tokenizer = Tokenizer.get();
+        Tokenizer.WordSink sink = (word, length) -> local.add(word, 0, length, 1);
+        int end = Math.min(cards.size(), (chunk + 1) * PARALLEL_CHUNK_ROWS);
+        for (int row = chunk * PARALLEL_CHUNK_ROWS; row < end; row++) {
+            tokenizer.tokenize(cards.getName(row), sink);
+            tokenizer.tokenize(cards.getBankName(row), sink);
+            tokenizer.tokenize(cards.getRewards(row), sink);
+        }
+    }
+
+    // Add the words and counts of a dictionary built elsewhere, such as by a
+    // ConcurrentVocabularyBuilder, in its id order
+    public void addTerms(TermDictionary other) {
+        lock.writeLock().lock();
+        try {
+            terms.addAll(other);
+            if (hasDependents()) {
+                for (int id = 0; id < other.size(); id++) {
+                    String word = other.getTerm(id);
+                    int frequency = terms.getCount(word);
+                    wordChanged(word, frequency - other.getCount(id), frequency);
                 }
             }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
-    // Getter for vocabulary set
+    // Count the words of one more card
+    public void addCard(CreditCard card) {
+        TermDictionary changes = new TermDictionary();
+        addCardWords(card, 1, changes);
+        applyChanges(changes);
+    }
+
+    // Uncount the words of a card that was added before. Throws IllegalArgumentException, leaving
+    // the vocabulary unchanged, when the card has words the vocabulary does not hold.
+    public void removeCard(CreditCard card) {
+        TermDictionary changes = new TermDictionary();
+        addCardWords(card, -1, changes);
+        applyChanges(changes);
+    }
+
+    // Replace a card's words; only the words whose count differs are touched
+    public void updateCard(CreditCard oldCard, CreditCard newCard) {
+        TermDictionary changes = new TermDictionary();
+        addCardWords(oldCard, -1, changes);
+        addCardWords(newCard, 1, changes);
+        applyChanges(changes);
+    }
+
+    // Keep the vocabulary in step with cards later added to or removed from a store it was
+    // loaded from. Rows that move keep their words, so only additions and removals count.
+    public void followChanges(CardStore cards) {
+        cards.addListener(new CardStore.Listener() {
+            @Override
+            public void cardAdded(int row) {
+                addCard(cards.get(row));
+            }
+
+            @Override
+            public void cardRemoving(int row) {
+                removeCard(cards.get(row));
+            }
+
+            @Override
+            public void cardMoved(int from, int to) {
+            }
+        });
+    }
+
+    private static void addCardWords(CreditCard card, int sign, TermDictionary changes) {
+        Tokenizer tokenizer = Tokenizer.get();
+        Tokenizer.WordSink sink = (word, length) -> changes.add(word, 0, length, sign);
+        tokenizer.tokenize(card.getName(), sink);
+        tokenizer.tokenize(card.getBankName(), sink);
+        tokenizer.tokenize(card.getRewards(), sink);
+    }
+
+    // Apply per-word frequency deltas, checking first that no frequency would go below 0
+    private void applyChanges(TermDictionary changes) {
+        TermDictionary.TermView word = changes.newView();
+        lock.writeLock().lock();
+        try {
+            for (int id = 0; id < changes.size(); id++) {
+                int delta = changes.getCount(id);
+                if (delta < 0 && terms.getCount(word.moveTo(id)) + delta < 0) {
+                    throw new IllegalArgumentException("Card word \"" + word + "\" occurs "
+                            + terms.getCount(word) + " times in the vocabulary, cannot remove " + -delta);
+                }
+            }
+            for (int id = 0; id < changes.size(); id++) {
+                int delta = changes.getCount(id);
+                if (delta != 0) {
+                    changeFrequency(word.moveTo(id), delta);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void changeFrequency(CharSequence word, int delta) {
+        int id = terms.getId(word);
+        int oldFrequency = id < 0 ? 0 : terms.getCount(id);
+        int newFrequency = oldFrequency + delta;
+        if (newFrequency == 0) {
+            terms.remove(id);
+        } else if (id < 0) {
+            terms.add(word, newFrequency);
+        } else {
+            terms.setCount(id, newFrequency);
+        }
+        if (hasDependents()) {
+            wordChanged(word.toString(), oldFrequency, newFrequency);
+        }
+    }
+
+    private void addWords(String text) {
+        Tokenizer.get().tokenize(text, wordSink);
+    }
+
+    // Counted straight from the tokenizer buffer; a String is only made when an index or a
+    // listener needs to hear about the word
+    private void addWord(char[] word, int length) {
+        int id = terms.add(word, 0, length, 1);
+        if (hasDependents()) {
+            int frequency = terms.getCount(id);
+            wordChanged(terms.getTerm(id), frequency - 1, frequency);
+        }
+    }
+
+    // Package-private for benchmarks that build a vocabulary without a catalog
+    void addWord(String word, int count) {
+        lock.writeLock().lock();
+        try {
+            int frequency = terms.getCount(terms.add(word, count));
+            if (hasDependents()) {
+                wordChanged(word, frequency - count, frequency);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean hasDependents() {
+        return wordTree != null || completionTrie != null || symSpellIndex != null || !listeners.isEmpty();
+    }
+
+    // Bring the built indexes and the listeners up to date with one word's new frequency
+    private void wordChanged(String word, int oldFrequency, int newFrequency) {
+        BKTree tree = wordTree;
+        if (tree != null) {
+            if (oldFrequency == 0) {
+                tree.add(word);
+            } else if (newFrequency == 0) {
+                tree.remove(word);
+                // Removed words still take a node; rebuild once they outnumber the live ones
+                if (tree.nodeCount() > 2 * tree.size() + 1024) {
+                    wordTree = buildWordTree();
+                }
+            }
+        }
+        if (completionTrie != null) {
+            completionTrie.setFrequency(word, newFrequency);
+        }
+        if (symSpellIndex != null) {
+            symSpellIndex.setFrequency(word, newFrequency);
+        }
+        for (Listener listener : listeners) {
+            listener.frequencyChanged(word, oldFrequency, newFrequency);
+        }
+    }
+
+    public void addListener(Listener listener) {
+        lock.writeLock().lock();
+        try {
+            listeners.add(listener);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        lock.writeLock().lock();
+        try {
+            listeners.remove(listener);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Split text on whitespace and normalize each word to lower-case letters and digits.
+    // Shared with the search indexes so that vocabulary and index terms always agree.
+    public static List<String> extractWords(String text) {
+        return Tokenizer.words(text);
+    }
+
+    // Replace the contents with a vocabulary read back from a SpellIndex file. The file holds
+    // no SymSpell delete index, so that one is built on first use (SpellChecker.warmUp).
+    void restore(String[] words, int[] frequencies, BKTree tree, CompletionTrie trie) {
+        lock.writeLock().lock();
+        try {
+            if (terms.size() > 0) {
+                throw new IllegalStateException("Vocabulary already loaded");
+            }
+            for (int i = 0; i < words.length; i++) {
+                terms.add(words[i], frequencies[i]);
+            }
+            wordTree = tree;
+            completionTrie = trie;
+            symSpellIndex = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Shared by readers; the vocabulary does not change while it is held. Get the indexes before
+    // taking it, since building one needs the write lock.
+    public Lock readLock() {
+        return lock.readLock();
+    }
+
+    public boolean contains(String word) {
+        lock.readLock().lock();
+        try {
+            return terms.contains(word);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 0 for a word that is not in the vocabulary
+    public int getFrequency(String word) {
+        lock.readLock().lock();
+        try {
+            return terms.getCount(word);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Term ids, words and frequencies
+    public TermDictionary getTerms() {
+        return terms;
+    }
+
+    // Read-only view of the words
     public Set<String> getVocabulary() {
-        return vocabulary;
+        return terms.asSet();
     }
 
-    // Getter for frequency map
+    // Read-only view of word -> frequency
     public Map<String, Integer> getFrequencyMap() {
-        return frequencyMap;
+        return terms.asMap();
+    }
+
+    // Nearest-word index over the vocabulary
+    public BKTree getWordTree() {
+        BKTree tree = wordTree;
+        if (tree == null) {
+            lockForBuild();
+            try {
+                if (wordTree == null) {
+                    wordTree = buildWordTree();
+                }
+                tree = wordTree;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return tree;
+    }
+
+    private BKTree buildWordTree() {
+        BKTree tree = new BKTree();
+        for (int id = 0; id < terms.size(); id++) {
+            tree.add(terms.getTerm(id));
+        }
+        return tree;
+    }
+
+    // Frequency-ranked prefix completions over the vocabulary
+    public CompletionTrie getCompletionTrie() {
+        CompletionTrie trie = completionTrie;
+        if (trie == null) {
+            lockForBuild();
+            try {
+                if (completionTrie == null) {
+                    completionTrie = CompletionTrie.fromTerms(terms);
+                }
+                trie = completionTrie;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return trie;
+    }
+
+    // Symmetric-delete correction index over the vocabulary
+    public SymSpellIndex getSymSpellIndex() {
+        SymSpellIndex index = symSpellIndex;
+        if (index == null) {
+            lockForBuild();
+            try {
+                if (symSpellIndex == null) {
+                    symSpellIndex = SymSpellIndex.fromTerms(terms, SymSpellIndex.DEFAULT_MAX_EDIT_DISTANCE);
+                }
+                index = symSpellIndex;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return index;
+    }
+
+    // The write lock cannot be taken while holding the read lock; fail instead of deadlocking
+    private void lockForBuild() {
+        if (lock.getReadHoldCount() > 0) {
+            throw new IllegalStateException("Indexes must be built before taking the read lock");
+        }
+        lock.writeLock().lock();
     }
 
     // Get the size of the vocabulary
     public int getVocabularySize() {
-        return vocabulary.size();
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 }